@@ -0,0 +1,143 @@
+package com.reactive.http.benchmarks;
+
+import com.reactive.http.client.BlockingRestClient;
+import com.reactive.http.client.PoolSettings;
+import com.reactive.http.client.RestClientManager;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out of {@link #callers} concurrent calls against an embedded server answering after {@link #serverDelayMillis},
+ * one benchmark operation completing once every call returned. Compares the three ways of running that many callers:
+ * <ul>
+ *     <li>reactive: a single flatMap over the Mono API, no caller threads at all</li>
+ *     <li>platform: {@link BlockingRestClient} on a fixed pool of {@link #PLATFORM_THREADS} platform threads, the
+ *     classic thread-per-request server, where callers queue for a thread</li>
+ *     <li>virtual: {@link BlockingRestClient} on {@link BlockingRestClient#newCallerExecutor(String)}, a virtual thread
+ *     per caller on Java 21 and later. Older runtimes fall back to a platform thread per caller, so run this one on
+ *     Java 21 to compare virtual threads</li>
+ * </ul>
+ * With a delay dominating the call, the ideal operation time is about the delay, virtual threads should stay close to
+ * reactive while the fixed pool needs callers / PLATFORM_THREADS rounds of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BlockingBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"10000"})
+    public int callers;
+
+    @Param({"20"})
+    public int serverDelayMillis;
+
+    @Param({"reactive", "platform", "virtual"})
+    public String model;
+
+    private DisposableServer server;
+    private RestClientManager client;
+    private BlockingRestClient blockingClient;
+    private ExecutorService executor;
+    private String itemUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] itemJson = Payloads.serialize(Payloads.item(1));
+        Duration delay = Duration.ofMillis(serverDelayMillis);
+
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/items/{id}", (request, response) -> response.header("Content-Type", "application/json")
+                                .send(Mono.delay(delay).map(tick -> Unpooled.wrappedBuffer(itemJson)))))
+                .bindNow();
+
+        //Enough connections that the pool is not what limits concurrency, the remaining callers wait for a connection
+        client = new RestClientManager(RestClientManager.Config.builder()
+                .name("blocking-benchmark-client")
+                .pool(PoolSettings.builder().maxConnections(1000).pendingAcquireMaxCount(-1).build())
+                .build());
+        blockingClient = new BlockingRestClient(client);
+        itemUrl = "http://127.0.0.1:" + server.port() + "/items/1";
+
+        if ("platform".equals(model)) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(PLATFORM_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "platform-caller-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else if ("virtual".equals(model)) {
+            executor = BlockingRestClient.newCallerExecutor("virtual-caller");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        client.dispose();
+        server.disposeNow();
+    }
+
+    /**
+     * @return number of successful calls, failures would make the comparison meaningless so they are counted
+     */
+    @Benchmark
+    public int fanOut() throws InterruptedException {
+        if (executor == null) {
+            Long successes = Flux.range(0, callers)
+                    .flatMap(i -> client.getResource(itemUrl, Item.class), callers)
+                    .filter(result -> result.isSuccess())
+                    .count()
+                    .block();
+            return successes.intValue();
+        }
+
+        AtomicInteger successes = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            executor.execute(() -> {
+                try {
+                    if (blockingClient.getResource(itemUrl, Item.class).isSuccess()) {
+                        successes.incrementAndGet();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return successes.get();
+    }
+}
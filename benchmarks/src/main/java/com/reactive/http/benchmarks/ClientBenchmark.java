@@ -0,0 +1,120 @@
+package com.reactive.http.benchmarks;
+
+import com.reactive.http.client.PoolSettings;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.RestApiBatchResult;
+import com.reactive.http.model.RestApiListResult;
+import com.reactive.http.model.RestApiResult;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end calls through RestClientManager against an embedded reactor-netty server on the loopback interface, so
+ * the numbers include pooling, HTTP codec and decoding but no real network
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ClientBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int BATCH_CONCURRENCY = 16;
+
+    @Param({"1KB", "1MB"})
+    public String payloadSize;
+
+    private DisposableServer server;
+    private RestClientManager client;
+    private String pageUrl;
+    private String itemsUrl;
+    private List<String> batchUrls;
+    private Item item;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int targetBytes = Payloads.parseSize(payloadSize);
+        byte[] pageJson = Payloads.serialize(Payloads.page(targetBytes));
+        byte[] itemsJson = Payloads.serialize(Payloads.items(targetBytes));
+        byte[] itemJson = Payloads.serialize(Payloads.item(1));
+
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/page", (request, response) -> response.header("Content-Type", "application/json")
+                                .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(pageJson))))
+                        .get("/items", (request, response) -> response.header("Content-Type", "application/json")
+                                .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(itemsJson))))
+                        .get("/items/{id}", (request, response) -> response.header("Content-Type", "application/json")
+                                .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(itemJson))))
+                        //Echoes the body back, as a typical create endpoint returns the stored resource
+                        .post("/items", (request, response) -> response.header("Content-Type", "application/json")
+                                .send(request.receive().retain())))
+                .bindNow();
+
+        client = new RestClientManager(RestClientManager.Config.builder()
+                .name("benchmark-client")
+                .pool(PoolSettings.builder().maxConnections(64).build())
+                .build());
+
+        String baseUrl = "http://127.0.0.1:" + server.port();
+        pageUrl = baseUrl + "/page";
+        itemsUrl = baseUrl + "/items";
+        batchUrls = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchUrls.add(itemsUrl + "/" + i);
+        }
+        item = Payloads.item(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.dispose();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public RestApiResult<Page> getResource() {
+        return client.getResource(pageUrl, Page.class).block();
+    }
+
+    @Benchmark
+    public RestApiListResult<Item> getResources() {
+        return client.getResources(itemsUrl, Item.class).block();
+    }
+
+    @Benchmark
+    public RestApiResult<Item> postResource() {
+        return client.postResource(itemsUrl, item).block();
+    }
+
+    /**
+     * BATCH_SIZE small GETs pipelined over the pool, BATCH_CONCURRENCY in flight at a time
+     */
+    @Benchmark
+    public List<RestApiBatchResult<Item>> getResourcesBatch() {
+        return client.getResourcesBatch(batchUrls, Item.class, BATCH_CONCURRENCY).collectList().block();
+    }
+}
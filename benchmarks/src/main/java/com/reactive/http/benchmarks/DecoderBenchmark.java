@@ -0,0 +1,71 @@
+package com.reactive.http.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactive.http.codec.JacksonCodec;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking decoding of chunked bodies, a single object (getResource) and an array (getResources), without any
+ * network in the way. Payload sizes are those of the JSON encoding, the binary formats encode the same values smaller.
+ * CBOR is aggregated before decoding, Jackson has no non-blocking CBOR parser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DecoderBenchmark {
+
+    @Param({"1KB", "1MB", "100MB"})
+    public String payloadSize;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private JacksonCodec codec;
+    private List<ByteBuf> pageChunks;
+    private List<ByteBuf> listChunks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int targetBytes = Payloads.parseSize(payloadSize);
+        codec = Payloads.codec(format);
+        ObjectMapper mapper = codec.getJacksonCache().getMapper();
+        pageChunks = Payloads.chunks(Payloads.serialize(mapper, Payloads.page(targetBytes)));
+        listChunks = Payloads.chunks(Payloads.serialize(mapper, Payloads.items(targetBytes)));
+    }
+
+    @Benchmark
+    public Page deserialize() {
+        return codec.<Page>decodeToMono(Payloads.body(pageChunks), Page.class).block();
+    }
+
+    @Benchmark
+    public List<Item> deserializeToList() {
+        return codec.<Item>decode(Payloads.body(listChunks), Item.class).collectList().block();
+    }
+
+    /**
+     * Element by element decoding as used by streamResources, only the element in flight is held in memory
+     */
+    @Benchmark
+    public Long deserializeStream() {
+        return codec.decode(Payloads.body(listChunks), Item.class).count().block();
+    }
+}
@@ -0,0 +1,81 @@
+package com.reactive.http.benchmarks;
+
+import com.reactive.http.codec.JsonEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body serialization into pooled direct buffers. POST, PUT and PATCH share this path, they differ only in the
+ * request line, so one suite covers all three
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EncoderBenchmark {
+
+    private static final JsonEncoder ENCODER = new JsonEncoder(Payloads.MAPPER);
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    /**
+     * A single small DTO, the common case of a POST/PUT/PATCH body. Kept apart from the payloadSize parameter so it runs once
+     */
+    @State(Scope.Benchmark)
+    public static class ItemState {
+        private Item item;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            item = Payloads.item(42);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+        @Param({"1KB", "1MB", "100MB"})
+        public String payloadSize;
+
+        private Page page;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            page = Payloads.page(Payloads.parseSize(payloadSize));
+        }
+    }
+
+    @Benchmark
+    public int serializeItem(ItemState state) throws IOException {
+        return writeAndRelease(state.item);
+    }
+
+    @Benchmark
+    public int serializePage(PageState state) throws IOException {
+        return writeAndRelease(state.page);
+    }
+
+    private static int writeAndRelease(Object value) throws IOException {
+        ByteBuf buffer = ENCODER.encode(ALLOCATOR, value);
+        try {
+            return buffer.readableBytes();
+        } finally {
+            buffer.release();
+        }
+    }
+}
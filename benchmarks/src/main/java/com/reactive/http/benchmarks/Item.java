@@ -0,0 +1,15 @@
+package com.reactive.http.benchmarks;
+
+import java.util.List;
+
+/**
+ * Typical flat DTO used as the payload element of every benchmark
+ */
+public class Item {
+    public long id;
+    public String name;
+    public String description;
+    public double price;
+    public boolean active;
+    public List<String> tags;
+}
@@ -0,0 +1,109 @@
+package com.reactive.http.benchmarks;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Server side latency of the {@link StubServer}, sampled once per response before its first byte is sent
+ */
+public interface LatencyDistribution {
+
+    LatencyDistribution NONE = random -> 0;
+
+    /**
+     * @return delay in nanoseconds, never negative
+     */
+    long sampleNanos(SplittableRandom random);
+
+    static LatencyDistribution fixed(Duration delay) {
+        long delayNanos = delay.toNanos();
+        return random -> delayNanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("max must not be less than min");
+        }
+        return random -> minNanos == maxNanos ? minNanos : random.nextLong(minNanos, maxNanos + 1);
+    }
+
+    /**
+     * Memoryless delays, e.g. a service whose time is dominated by independent waits
+     */
+    static LatencyDistribution exponential(Duration mean) {
+        double meanNanos = mean.toNanos();
+        return random -> (long) (-meanNanos * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * Long tailed delays resembling most real services, defined by their median and 99th percentile
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        if (p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("p99 must not be less than the median");
+        }
+        double mu = Math.log(Math.max(1, median.toNanos()));
+        //2.326 is the standard normal quantile of the 99th percentile
+        double sigma = (Math.log(Math.max(1, p99.toNanos())) - mu) / 2.326;
+        return random -> (long) Math.exp(mu + sigma * nextGaussian(random));
+    }
+
+    /**
+     * @param spec none, fixed:5ms, uniform:1ms-10ms, exp:5ms or lognormal:5ms-50ms (median-p99), durations in ns, us,
+     *             ms or s
+     */
+    static LatencyDistribution parse(String spec) {
+        String trimmed = spec.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.equals("none")) {
+            return NONE;
+        }
+        int colon = trimmed.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid latency distribution " + spec);
+        }
+        String kind = trimmed.substring(0, colon);
+        String[] args = trimmed.substring(colon + 1).split("-");
+        switch (kind) {
+            case "fixed":
+                return fixed(parseDuration(args[0]));
+            case "uniform":
+                return uniform(parseDuration(args[0]), parseDuration(args[args.length - 1]));
+            case "exp":
+                return exponential(parseDuration(args[0]));
+            case "lognormal":
+                return logNormal(parseDuration(args[0]), parseDuration(args[args.length - 1]));
+            default:
+                throw new IllegalArgumentException("Invalid latency distribution " + spec);
+        }
+    }
+
+    /**
+     * @param duration duration such as 500us, 5ms or 2s
+     */
+    static Duration parseDuration(String duration) {
+        String lower = duration.trim().toLowerCase(Locale.ROOT);
+        if (lower.endsWith("ns")) {
+            return Duration.ofNanos(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        if (lower.endsWith("us")) {
+            return Duration.ofNanos(Long.parseLong(lower.substring(0, lower.length() - 2)) * 1000);
+        }
+        if (lower.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        if (lower.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(lower));
+    }
+
+    private static double nextGaussian(SplittableRandom random) {
+        //Box-Muller, SplittableRandom has no nextGaussian before Java 17
+        double u1 = 1 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+}
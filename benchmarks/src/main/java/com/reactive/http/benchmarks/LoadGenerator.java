@@ -0,0 +1,318 @@
+package com.reactive.http.benchmarks;
+
+import com.reactive.http.model.RestApiResult;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load generator: calls are started at a fixed rate regardless of how many are still outstanding, like
+ * independent users would, instead of a fixed number of callers each waiting for its previous call.
+ * <p>
+ * The latency of a call is measured from the time it was scheduled to start, not from when it actually started. When
+ * the client or the generator stalls, the calls that should have started meanwhile are late, and that wait is part of
+ * their latency. This avoids coordinated omission, where a closed loop or a generator measuring from the actual start
+ * quietly stops sampling exactly while latency is bad and reports a far too optimistic tail.
+ * <p>
+ * Latencies are recorded in microseconds into HdrHistograms, reported per interval while running and optionally written
+ * to an HdrHistogram interval log for HistogramLogAnalyzer or HdrHistogram's plotting tools.
+ */
+public class LoadGenerator {
+
+    private final double ratePerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private int maxInFlight = 100_000;
+    private Duration reportInterval = Duration.ofSeconds(1);
+    private Duration drainTimeout = Duration.ofSeconds(30);
+    private Path histogramLog;
+    private PrintStream out = System.out;
+
+    /**
+     * @param ratePerSecond calls started per second
+     * @param warmup        time the calls run unmeasured first while the rate ramps up to ratePerSecond, letting the JIT
+     *                      and connection pool settle
+     * @param duration      time the calls are measured after the warmup
+     */
+    public LoadGenerator(double ratePerSecond, Duration warmup, Duration duration) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    /**
+     * @param maxInFlight outstanding calls above which scheduled calls are dropped instead of started, bounding memory
+     *                    when the target cannot keep up. Dropped calls are reported, a run with drops is invalid
+     */
+    public LoadGenerator maxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    public LoadGenerator reportInterval(Duration reportInterval) {
+        this.reportInterval = reportInterval;
+        return this;
+    }
+
+    /**
+     * @param drainTimeout how long to wait for outstanding calls once the last one started, the rest count as failed
+     *                     and are recorded with the latency they reached by then
+     */
+    public LoadGenerator drainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+        return this;
+    }
+
+    /**
+     * @param histogramLog file receiving the measured interval histograms in the HdrHistogram log format
+     */
+    public LoadGenerator histogramLog(Path histogramLog) {
+        this.histogramLog = histogramLog;
+        return this;
+    }
+
+    public LoadGenerator out(PrintStream out) {
+        this.out = out;
+        return this;
+    }
+
+    /**
+     * @param call supplies a call per scheduled start, which must not block. A call counts as successful if it emits a
+     *             successful result
+     * @return outcome of the measured calls
+     */
+    public Result run(Supplier<Mono<? extends RestApiResult<?>>> call) throws IOException, InterruptedException {
+        Recorder recorder = new Recorder(3);
+        Histogram total = new Histogram(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        Set<Call> outstanding = ConcurrentHashMap.newKeySet();
+        LongAdder successes = new LongAdder();
+        LongAdder failures = new LongAdder();
+        LongAdder dropped = new LongAdder();
+
+        long startNanos = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        long measureStartNanos = startNanos + warmup.toNanos();
+        long endNanos = measureStartNanos + duration.toNanos();
+
+        HistogramLogWriter logWriter = histogramLog != null ? new HistogramLogWriter(histogramLog.toFile()) : null;
+        if (logWriter != null) {
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(startMillis);
+            logWriter.setBaseTime(startMillis);
+            logWriter.outputLegend();
+        }
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        out.printf("%10s %10s %10s %10s %10s %10s %10s%n", "time(s)", "calls", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "inFlight");
+        reporter.scheduleAtFixedRate(() -> report(recorder, total, logWriter, inFlight, startNanos, measureStartNanos),
+                reportInterval.toNanos(), reportInterval.toNanos(), TimeUnit.NANOSECONDS);
+
+        long scheduled = 0;
+        try {
+            for (long index = 0; ; index++) {
+                long intendedStartNanos = startNanos + intendedOffsetNanos(index);
+                if (intendedStartNanos - endNanos >= 0) {
+                    break;
+                }
+                long waitNanos;
+                while ((waitNanos = intendedStartNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+
+                boolean measured = intendedStartNanos - measureStartNanos >= 0;
+                if (measured) {
+                    scheduled++;
+                }
+                if (inFlight.get() >= maxInFlight) {
+                    if (measured) {
+                        dropped.increment();
+                    }
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                Call started = new Call(intendedStartNanos, measured);
+                if (measured) {
+                    outstanding.add(started);
+                }
+                Mono.defer(call).subscribe(
+                        result -> complete(started, result.isSuccess(), recorder, inFlight, outstanding, successes, failures),
+                        error -> complete(started, false, recorder, inFlight, outstanding, successes, failures));
+            }
+
+            long drainDeadlineNanos = System.nanoTime() + drainTimeout.toNanos();
+            while (inFlight.get() > 0 && System.nanoTime() - drainDeadlineNanos < 0) {
+                Thread.sleep(10);
+            }
+            //Calls still outstanding are the slowest of the run, leaving them out of the histogram would hide that tail
+            long timedOutNanos = System.nanoTime();
+            for (Call timedOut : outstanding) {
+                if (timedOut.finish()) {
+                    recorder.recordValue(Math.max(1, (timedOutNanos - timedOut.intendedStartNanos) / 1000));
+                    failures.increment();
+                }
+            }
+        } finally {
+            reporter.shutdown();
+            reporter.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        report(recorder, total, logWriter, inFlight, startNanos, measureStartNanos);
+        if (logWriter != null) {
+            logWriter.close();
+        }
+
+        return new Result(total, scheduled, successes.sum(), failures.sum(), dropped.sum(), duration.toNanos() / 1e9);
+    }
+
+    /**
+     * Start of a call relative to the start of the run. The rate ramps up linearly during the warmup, so a cold JVM is not
+     * hit with the full rate at once and builds a backlog the measured part would still be working off
+     */
+    private long intendedOffsetNanos(long index) {
+        double warmupSeconds = warmup.toNanos() / 1e9;
+        double warmupCalls = ratePerSecond * warmupSeconds / 2;
+        double offsetSeconds = index < warmupCalls
+                ? Math.sqrt(2 * warmupSeconds * index / ratePerSecond)
+                : warmupSeconds + (index - warmupCalls) / ratePerSecond;
+        return (long) (offsetSeconds * 1e9);
+    }
+
+    private static void complete(Call call, boolean success, Recorder recorder, AtomicInteger inFlight, Set<Call> outstanding,
+                                 LongAdder successes, LongAdder failures) {
+        long latencyNanos = System.nanoTime() - call.intendedStartNanos;
+        inFlight.decrementAndGet();
+        //A call completing after the drain timeout was already recorded as failed
+        if (!call.finish() || !call.measured) {
+            return;
+        }
+        outstanding.remove(call);
+        recorder.recordValue(Math.max(1, latencyNanos / 1000));
+        if (success) {
+            successes.increment();
+        } else {
+            failures.increment();
+        }
+    }
+
+    private void report(Recorder recorder, Histogram total, HistogramLogWriter logWriter, AtomicInteger inFlight,
+                        long startNanos, long measureStartNanos) {
+        Histogram interval = recorder.getIntervalHistogram();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        if (System.nanoTime() - measureStartNanos < 0) {
+            out.printf("%10.1f %10s %43s %10d%n", elapsedSeconds, "-", "warming up", inFlight.get());
+            return;
+        }
+        total.add(interval);
+        if (logWriter != null) {
+            logWriter.outputIntervalHistogram(interval);
+        }
+        out.printf("%10.1f %10d %10.3f %10.3f %10.3f %10.3f %10d%n", elapsedSeconds, interval.getTotalCount(),
+                interval.getValueAtPercentile(50) / 1000d, interval.getValueAtPercentile(99) / 1000d,
+                interval.getValueAtPercentile(99.9) / 1000d, interval.getMaxValue() / 1000d, inFlight.get());
+    }
+
+    /**
+     * A started call, recorded once either by its completion or by the drain timeout
+     */
+    private static final class Call {
+        private final long intendedStartNanos;
+        private final boolean measured;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Call(long intendedStartNanos, boolean measured) {
+            this.intendedStartNanos = intendedStartNanos;
+            this.measured = measured;
+        }
+
+        /**
+         * @return true for the first caller only
+         */
+        private boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Outcome of the measured part of a run, latencies in microseconds
+     */
+    public static final class Result {
+        private final Histogram histogram;
+        private final long scheduled;
+        private final long successes;
+        private final long failures;
+        private final long dropped;
+        private final double seconds;
+
+        private Result(Histogram histogram, long scheduled, long successes, long failures, long dropped, double seconds) {
+            this.histogram = histogram;
+            this.scheduled = scheduled;
+            this.successes = successes;
+            this.failures = failures;
+            this.dropped = dropped;
+            this.seconds = seconds;
+        }
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        public long getScheduled() {
+            return scheduled;
+        }
+
+        public long getSuccesses() {
+            return successes;
+        }
+
+        /**
+         * @return calls failing or still outstanding after the drain timeout
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public double getThroughput() {
+            return successes / seconds;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%nscheduled %d, succeeded %d, failed %d, dropped %d, throughput %.1f/s%n", scheduled, successes,
+                    failures, dropped, getThroughput());
+            if (dropped > 0) {
+                out.println("WARNING: calls were dropped at maxInFlight, the target rate is not sustainable and the latencies understate the tail");
+            }
+            out.printf("p50 %.3fms, p90 %.3fms, p99 %.3fms, p99.9 %.3fms, p99.99 %.3fms, max %.3fms%n%n",
+                    histogram.getValueAtPercentile(50) / 1000d, histogram.getValueAtPercentile(90) / 1000d,
+                    histogram.getValueAtPercentile(99) / 1000d, histogram.getValueAtPercentile(99.9) / 1000d,
+                    histogram.getValueAtPercentile(99.99) / 1000d, histogram.getMaxValue() / 1000d);
+            histogram.outputPercentileDistribution(out, 1000d);
+        }
+    }
+}
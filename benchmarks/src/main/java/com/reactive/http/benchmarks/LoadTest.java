@@ -0,0 +1,81 @@
+package com.reactive.http.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.client.PoolSettings;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.RestApiResult;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Drives RestClientManager with the {@link LoadGenerator} against a {@link StubServer} started in the same JVM, or
+ * against any service given by --url, and prints the latency distribution:
+ * <p>
+ * java -cp benchmarks.jar com.reactive.http.benchmarks.LoadTest --rate 5000 --duration 30s --latency lognormal:2ms-20ms
+ * <p>
+ * Options: --url base url of a running service, --path /items/1, --type item|items|page|node the body is decoded to,
+ * --rate calls per second, --warmup 10s, --duration 30s, --connections 64, --max-in-flight, --hlog interval log file,
+ * and the --payload, --replay and behavior options of {@link StubServer#main(String[])} for the embedded stub server.
+ */
+public class LoadTest {
+
+    public static void main(String[] arguments) throws Exception {
+        Args args = Args.parse(arguments);
+
+        StubServer stubServer = null;
+        String baseUrl = args.get("url", null);
+        if (baseUrl == null) {
+            stubServer = new StubServer(StubServer.behavior(args), args.getLong("seed", System.nanoTime()));
+            if (args.has("replay")) {
+                stubServer.load(Path.of(args.get("replay", null)));
+            } else {
+                stubServer.withSampleRecordings(Payloads.parseSize(args.get("payload", "1KB")));
+            }
+            baseUrl = stubServer.start("127.0.0.1", 0).baseUrl();
+        }
+
+        RestClientManager client = new RestClientManager(RestClientManager.Config.builder()
+                .name("load-test-client")
+                .pool(PoolSettings.builder()
+                        .maxConnections(args.getInt("connections", 64))
+                        .pendingAcquireMaxCount(-1)
+                        .build())
+                .build());
+        String url = baseUrl + args.get("path", "/items/1");
+        Supplier<Mono<? extends RestApiResult<?>>> call = call(client, url, args.get("type", "item"));
+
+        LoadGenerator loadGenerator = new LoadGenerator(args.getDouble("rate", 1000),
+                args.getDuration("warmup", Duration.ofSeconds(10)), args.getDuration("duration", Duration.ofSeconds(30)))
+                .maxInFlight(args.getInt("max-in-flight", 100_000));
+        if (args.has("hlog")) {
+            loadGenerator.histogramLog(Path.of(args.get("hlog", null)));
+        }
+        try {
+            System.out.println("Calling " + url + " at " + args.getDouble("rate", 1000) + "/s");
+            loadGenerator.run(call).print(System.out);
+        } finally {
+            client.dispose();
+            if (stubServer != null) {
+                stubServer.close();
+            }
+        }
+    }
+
+    private static Supplier<Mono<? extends RestApiResult<?>>> call(RestClientManager client, String url, String type) {
+        switch (type) {
+            case "item":
+                return () -> client.getResource(url, Item.class);
+            case "items":
+                return () -> client.getResources(url, Item.class);
+            case "page":
+                return () -> client.getResource(url, Page.class);
+            case "node":
+                return () -> client.getResource(url, JsonNode.class);
+            default:
+                throw new IllegalArgumentException("Unknown type " + type + ", expected item, items, page or node");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.reactive.http.benchmarks;
+
+import java.util.List;
+
+/**
+ * Single JSON object wrapping a list of items, so single value decoding can be measured at the same sizes as lists
+ */
+public class Page {
+    public int page;
+    public List<Item> items;
+}
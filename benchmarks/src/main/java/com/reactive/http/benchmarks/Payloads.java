@@ -0,0 +1,126 @@
+package com.reactive.http.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.reactive.http.codec.CborCodec;
+import com.reactive.http.codec.JacksonCodec;
+import com.reactive.http.codec.JsonCodec;
+import com.reactive.http.codec.SmileCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import reactor.core.publisher.Flux;
+
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic payloads of a requested serialized size, shared by all benchmark suites
+ */
+final class Payloads {
+
+    static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+    //Roughly the read size of a Netty channel under load, bodies are fed to the decoder in chunks of this size
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    private Payloads() {
+    }
+
+    /**
+     * @param size size such as 512B, 1KB, 1MB or 100MB
+     * @return number of bytes
+     */
+    static int parseSize(String size) {
+        String upper = size.trim().toUpperCase(Locale.ROOT);
+        if (upper.endsWith("MB")) {
+            return Integer.parseInt(upper.substring(0, upper.length() - 2)) * 1024 * 1024;
+        }
+        if (upper.endsWith("KB")) {
+            return Integer.parseInt(upper.substring(0, upper.length() - 2)) * 1024;
+        }
+        return Integer.parseInt(upper.endsWith("B") ? upper.substring(0, upper.length() - 1) : upper);
+    }
+
+    static Item item(long id) {
+        Item item = new Item();
+        item.id = id;
+        item.name = "item-" + id;
+        item.description = "Description of item " + id + " long enough to resemble a real catalogue entry";
+        item.price = id * 0.25;
+        item.active = id % 3 != 0;
+        item.tags = Arrays.asList("tag-" + (id % 7), "tag-" + (id % 11));
+        return item;
+    }
+
+    /**
+     * @return items whose serialized JSON array is at least the given number of bytes, and at least one item
+     */
+    static List<Item> items(int targetBytes) {
+        int itemBytes = serialize(List.of(item(0))).length;
+        int count = Math.max(1, targetBytes / itemBytes);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+
+    static Page page(int targetBytes) {
+        Page page = new Page();
+        page.page = 1;
+        page.items = items(targetBytes);
+        return page;
+    }
+
+    /**
+     * @param format json, smile or cbor
+     * @return codec of the format
+     */
+    static JacksonCodec codec(String format) {
+        switch (format) {
+            case "json":
+                return new JsonCodec(MAPPER);
+            case "smile":
+                return new SmileCodec();
+            case "cbor":
+                return new CborCodec();
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    static byte[] serialize(Object value) {
+        return serialize(MAPPER, value);
+    }
+
+    static byte[] serialize(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the bytes split into direct buffers of {@link #CHUNK_SIZE}, as they would arrive from the socket
+     */
+    static List<ByteBuf> chunks(byte[] bytes) {
+        List<ByteBuf> chunks = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, bytes.length - offset);
+            chunks.add(Unpooled.unreleasableBuffer(Unpooled.directBuffer(length).writeBytes(bytes, offset, length)));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return a fresh body over the chunks, each subscriber reads them from the start
+     */
+    static Flux<ByteBuf> body(List<ByteBuf> chunks) {
+        return Flux.fromIterable(chunks).map(ByteBuf::duplicate);
+    }
+}
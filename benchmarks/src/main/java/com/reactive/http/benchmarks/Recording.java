@@ -0,0 +1,34 @@
+package com.reactive.http.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Response recorded by the {@link StubServer}, keyed by method and uri. Serialized as JSON in recording files, the body
+ * as base64 so binary formats survive
+ */
+public class Recording {
+    public String method;
+    public String uri;
+    public int status;
+    public Map<String, String> headers = new LinkedHashMap<>();
+    public byte[] body;
+
+    static Recording of(String method, String uri, int status, String contentType, byte[] body) {
+        Recording recording = new Recording();
+        recording.method = method;
+        recording.uri = uri;
+        recording.status = status;
+        recording.headers.put("Content-Type", contentType);
+        recording.body = body;
+        return recording;
+    }
+
+    String key() {
+        return key(method, uri);
+    }
+
+    static String key(String method, String uri) {
+        return method + " " + uri;
+    }
+}
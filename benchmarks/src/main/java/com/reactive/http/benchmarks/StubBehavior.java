@@ -0,0 +1,92 @@
+package com.reactive.http.benchmarks;
+
+import java.time.Duration;
+
+/**
+ * How the {@link StubServer} delivers responses: latency before the first byte, chunking and slow drip of the body, and
+ * injected failures. Immutable, every setter returns a modified copy
+ */
+public final class StubBehavior {
+
+    public static final StubBehavior DEFAULT = new StubBehavior(LatencyDistribution.NONE, 0, Duration.ZERO, 0, 503, 0);
+
+    private final LatencyDistribution latency;
+    private final int chunkSize;
+    private final Duration dripInterval;
+    private final double errorRate;
+    private final int errorStatus;
+    private final double resetRate;
+
+    private StubBehavior(LatencyDistribution latency, int chunkSize, Duration dripInterval, double errorRate,
+                         int errorStatus, double resetRate) {
+        if (errorRate < 0 || resetRate < 0 || errorRate + resetRate > 1) {
+            throw new IllegalArgumentException("errorRate and resetRate must be probabilities adding up to at most 1");
+        }
+        this.latency = latency;
+        this.chunkSize = chunkSize;
+        this.dripInterval = dripInterval;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.resetRate = resetRate;
+    }
+
+    /**
+     * @param latency delay before the response starts
+     */
+    public StubBehavior latency(LatencyDistribution latency) {
+        return new StubBehavior(latency, chunkSize, dripInterval, errorRate, errorStatus, resetRate);
+    }
+
+    /**
+     * @param chunkSize body bytes per write, each flushed on its own, 0 writes the body at once
+     */
+    public StubBehavior chunkSize(int chunkSize) {
+        return new StubBehavior(latency, chunkSize, dripInterval, errorRate, errorStatus, resetRate);
+    }
+
+    /**
+     * @param dripInterval pause between chunks, a slow drip body when combined with a small chunk size
+     */
+    public StubBehavior dripInterval(Duration dripInterval) {
+        return new StubBehavior(latency, chunkSize, dripInterval, errorRate, errorStatus, resetRate);
+    }
+
+    /**
+     * @param errorRate   share of responses replaced by an error status
+     * @param errorStatus the error status, e.g. 500, 503 or 429
+     */
+    public StubBehavior errors(double errorRate, int errorStatus) {
+        return new StubBehavior(latency, chunkSize, dripInterval, errorRate, errorStatus, resetRate);
+    }
+
+    /**
+     * @param resetRate share of requests whose connection is closed without a response, a transport failure
+     */
+    public StubBehavior resetRate(double resetRate) {
+        return new StubBehavior(latency, chunkSize, dripInterval, errorRate, errorStatus, resetRate);
+    }
+
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public Duration getDripInterval() {
+        return dripInterval;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public double getResetRate() {
+        return resetRate;
+    }
+}
@@ -0,0 +1,312 @@
+package com.reactive.http.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded reactor-netty server replaying recorded responses, so the client can be exercised and measured without a live
+ * service.
+ * <p>
+ * Responses are looked up by method and uri. In record mode every request is proxied to an upstream service and its
+ * response recorded, {@link #save(Path)} writes the recordings to a file a later run replays with {@link #load(Path)}.
+ * Requests without a recording are echoed when they carry a body and answered 404 otherwise. Every response is
+ * delivered according to the {@link StubBehavior} of the longest matching path prefix: after a sampled latency,
+ * optionally in flushed chunks with pauses in between, or replaced by an error status or a closed connection.
+ * <p>
+ * Standalone: java -cp benchmarks.jar com.reactive.http.benchmarks.StubServer --port 8089 --latency lognormal:5ms-50ms
+ */
+public class StubServer implements AutoCloseable {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("content-length", "transfer-encoding", "connection",
+            "keep-alive", "upgrade");
+    private static final byte[] INJECTED_ERROR_BODY = "{\"error\":\"injected failure\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrentMap<String, Recording> recordings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StubBehavior> pathBehaviors = new ConcurrentHashMap<>();
+    private final StubBehavior defaultBehavior;
+    private final ThreadLocal<SplittableRandom> random;
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private volatile String upstreamBaseUrl;
+    private volatile HttpClient upstreamClient;
+    private DisposableServer server;
+
+    public StubServer(StubBehavior defaultBehavior) {
+        this(defaultBehavior, System.nanoTime());
+    }
+
+    /**
+     * @param seed seed of the latency and failure sampling, each event loop thread derives its own sequence from it
+     */
+    public StubServer(StubBehavior defaultBehavior, long seed) {
+        this.defaultBehavior = defaultBehavior;
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        this.random = ThreadLocal.withInitial(() -> {
+            synchronized (seedRandom) {
+                return seedRandom.split();
+            }
+        });
+    }
+
+    /**
+     * Adds the payloads of the benchmark suites: GET /page and GET /items of about the given size, and GET /items/0
+     * to /items/99 of a single item
+     */
+    public StubServer withSampleRecordings(int payloadBytes) {
+        String json = "application/json";
+        add(Recording.of("GET", "/page", 200, json, Payloads.serialize(Payloads.page(payloadBytes))));
+        add(Recording.of("GET", "/items", 200, json, Payloads.serialize(Payloads.items(payloadBytes))));
+        for (int i = 0; i < 100; i++) {
+            add(Recording.of("GET", "/items/" + i, 200, json, Payloads.serialize(Payloads.item(i))));
+        }
+        return this;
+    }
+
+    public StubServer add(Recording recording) {
+        recordings.put(recording.key(), recording);
+        return this;
+    }
+
+    /**
+     * Overrides the default behavior for every uri starting with the given path, the longest matching prefix wins
+     */
+    public StubServer behavior(String pathPrefix, StubBehavior behavior) {
+        pathBehaviors.put(pathPrefix, behavior);
+        return this;
+    }
+
+    /**
+     * Proxies requests to the upstream service and records its responses, replacing recordings of the same uri
+     */
+    public StubServer recordFrom(String upstreamBaseUrl) {
+        this.upstreamClient = HttpClient.create();
+        this.upstreamBaseUrl = upstreamBaseUrl.endsWith("/") ? upstreamBaseUrl.substring(0, upstreamBaseUrl.length() - 1) : upstreamBaseUrl;
+        return this;
+    }
+
+    public StubServer load(Path file) throws IOException {
+        List<Recording> loaded = Payloads.MAPPER.readValue(file.toFile(), new TypeReference<List<Recording>>() {
+        });
+        loaded.forEach(this::add);
+        return this;
+    }
+
+    public void save(Path file) throws IOException {
+        Payloads.MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), new ArrayList<>(recordings.values()));
+    }
+
+    public StubServer start(String host, int port) {
+        server = HttpServer.create()
+                .host(host)
+                .port(port)
+                .handle(this::handle)
+                .bindNow();
+        return this;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    public String baseUrl() {
+        return "http://" + server.host() + ":" + server.port();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requestCount.incrementAndGet();
+        StubBehavior behavior = behaviorFor(request.uri());
+        SplittableRandom threadRandom = random.get();
+        double failureRoll = threadRandom.nextDouble();
+        long delayNanos = behavior.getLatency().sampleNanos(threadRandom);
+        Mono<Long> latency = delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)) : Mono.just(0L);
+
+        if (failureRoll < behavior.getResetRate()) {
+            return request.receive().then(latency).then(Mono.fromRunnable(() ->
+                    response.withConnection(connection -> connection.channel().close())));
+        }
+        if (failureRoll < behavior.getResetRate() + behavior.getErrorRate()) {
+            return request.receive().then(latency).thenMany(Flux.defer(() -> send(response, behavior.getErrorStatus(),
+                    Map.of("Content-Type", "application/json"), INJECTED_ERROR_BODY, behavior)));
+        }
+
+        String key = Recording.key(request.method().name(), request.uri());
+        Mono<Recording> recording = upstreamBaseUrl != null
+                ? forward(request, key)
+                : request.receive().aggregate().asByteArray()
+                .map(requestBody -> recordingOrEcho(request, key, requestBody))
+                .switchIfEmpty(Mono.fromSupplier(() -> recordingOrEcho(request, key, new byte[0])));
+        return recording.delayUntil(ignored -> latency)
+                .flatMapMany(found -> send(response, found.status, found.headers, found.body, behavior));
+    }
+
+    private Recording recordingOrEcho(HttpServerRequest request, String key, byte[] requestBody) {
+        Recording recording = recordings.get(key);
+        if (recording != null) {
+            return recording;
+        }
+        if (requestBody.length > 0) {
+            String contentType = request.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            return Recording.of(request.method().name(), request.uri(), 200, contentType, requestBody);
+        }
+        return Recording.of(request.method().name(), request.uri(), 404, "application/json",
+                ("{\"error\":\"no recording for " + key + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Recording> forward(HttpServerRequest request, String key) {
+        return request.receive().aggregate().asByteArray().defaultIfEmpty(new byte[0])
+                .flatMap(requestBody -> upstreamClient
+                        .headers(headers -> {
+                            request.requestHeaders().forEach(header -> {
+                                if (!HOP_BY_HOP_HEADERS.contains(header.getKey().toLowerCase())
+                                        && !HttpHeaderNames.HOST.contentEqualsIgnoreCase(header.getKey())) {
+                                    headers.add(header.getKey(), header.getValue());
+                                }
+                            });
+                        })
+                        .request(request.method())
+                        .uri(upstreamBaseUrl + request.uri())
+                        .send(requestBody.length > 0 || !HttpMethod.GET.equals(request.method())
+                                ? ByteBufFlux.fromInbound(Mono.just(requestBody)) : Mono.empty())
+                        .responseSingle((upstreamResponse, body) -> body.asByteArray().defaultIfEmpty(new byte[0])
+                                .map(responseBody -> {
+                                    Recording recording = new Recording();
+                                    recording.method = request.method().name();
+                                    recording.uri = request.uri();
+                                    recording.status = upstreamResponse.status().code();
+                                    upstreamResponse.responseHeaders().forEach(header -> {
+                                        if (!HOP_BY_HOP_HEADERS.contains(header.getKey().toLowerCase())) {
+                                            recording.headers.put(header.getKey(), header.getValue());
+                                        }
+                                    });
+                                    recording.body = responseBody;
+                                    recordings.put(key, recording);
+                                    return recording;
+                                })));
+    }
+
+    private Publisher<Void> send(HttpServerResponse response, int status, Map<String, String> headers, byte[] body,
+                                 StubBehavior behavior) {
+        response.status(HttpResponseStatus.valueOf(status));
+        headers.forEach(response::header);
+        int length = body != null ? body.length : 0;
+        if (length == 0) {
+            return response.header(HttpHeaderNames.CONTENT_LENGTH, "0").send();
+        }
+        int chunkSize = behavior.getChunkSize();
+        if (chunkSize <= 0 || chunkSize >= length) {
+            return response.header(HttpHeaderNames.CONTENT_LENGTH, Integer.toString(length))
+                    .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(body)));
+        }
+
+        //No Content-Length, so the body goes out with chunked transfer encoding, every chunk flushed on its own
+        Duration dripInterval = behavior.getDripInterval();
+        int chunkCount = (length + chunkSize - 1) / chunkSize;
+        Flux<Integer> chunkIndexes = Flux.range(0, chunkCount);
+        if (!dripInterval.isZero()) {
+            chunkIndexes = chunkIndexes.concatMap(index -> index == 0 ? Mono.just(index) : Mono.delay(dripInterval).thenReturn(index));
+        }
+        Flux<ByteBuf> chunks = chunkIndexes.map(index -> {
+            int offset = index * chunkSize;
+            return Unpooled.wrappedBuffer(body, offset, Math.min(chunkSize, length - offset));
+        });
+        return response.send(chunks, chunk -> true);
+    }
+
+    private StubBehavior behaviorFor(String uri) {
+        StubBehavior behavior = defaultBehavior;
+        int longestPrefix = -1;
+        for (Map.Entry<String, StubBehavior> entry : pathBehaviors.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > longestPrefix && uri.startsWith(prefix)) {
+                behavior = entry.getValue();
+                longestPrefix = prefix.length();
+            }
+        }
+        return behavior;
+    }
+
+    /**
+     * --host 127.0.0.1 --port 8089 --payload 1KB --replay file --record upstreamUrl --save file, plus the behavior options
+     * of {@link #behavior(Args)}. Runs until stopped, a record run saves its recordings on shutdown
+     */
+    public static void main(String[] arguments) throws Exception {
+        Args args = Args.parse(arguments);
+        StubServer stubServer = new StubServer(behavior(args), args.getLong("seed", System.nanoTime()));
+        if (args.has("replay")) {
+            stubServer.load(Path.of(args.get("replay", null)));
+        } else if (!args.has("record")) {
+            stubServer.withSampleRecordings(Payloads.parseSize(args.get("payload", "1KB")));
+        }
+        if (args.has("record")) {
+            stubServer.recordFrom(args.get("record", null));
+        }
+        stubServer.start(args.get("host", "127.0.0.1"), args.getInt("port", 8089));
+        System.out.println("Stub server listening on " + stubServer.baseUrl());
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (args.has("save")) {
+                    stubServer.save(Path.of(args.get("save", null)));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                stubServer.close();
+                stopped.countDown();
+            }
+        }));
+        stopped.await();
+    }
+
+    /**
+     * --latency spec of {@link LatencyDistribution#parse(String)}, --chunk bytes, --drip duration, --error-rate share,
+     * --error-status code and --reset-rate share
+     */
+    static StubBehavior behavior(Args args) {
+        return StubBehavior.DEFAULT
+                .latency(LatencyDistribution.parse(args.get("latency", "none")))
+                .chunkSize(args.getInt("chunk", 0))
+                .dripInterval(args.getDuration("drip", Duration.ZERO))
+                .errors(args.getDouble("error-rate", 0), args.getInt("error-status", 503))
+                .resetRate(args.getDouble("reset-rate", 0));
+    }
+}
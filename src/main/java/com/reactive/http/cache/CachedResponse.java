@@ -0,0 +1,156 @@
+package com.reactive.http.cache;
+
+import com.reactive.http.model.RestApiResult;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Successful GET result kept by the {@link ResponseCache} together with the HTTP freshness and validator metadata needed
+ * to serve it again without the network, or to revalidate it with a conditional request.
+ * <p>
+ * The immutable result, and with it the deserialized value, is shared by every hit, so cached types should be treated
+ * as read-only by callers.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CachedResponse {
+
+    //Rough per-entry bookkeeping cost on top of the body size, so many tiny bodies still count against maxBytes
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    RestApiResult<?> result;
+    String etag;
+    String lastModified;
+    long expiresAtMillis;
+    long sizeBytes;
+
+    /**
+     * Builds a cache entry from a successful response, following the response's Cache-Control and Expires headers
+     *
+     * @param result    successful result of the call
+     * @param bodyBytes number of body bytes received
+     * @param nowMillis current wall clock time
+     * @return entry to store, null if the response may not or need not be cached
+     */
+    public static CachedResponse of(RestApiResult<?> result, long bodyBytes, long nowMillis) {
+        if (!result.isSuccess() || result.getHttpStatusCode() != 200) {
+            return null;
+        }
+        HttpHeaders responseHeaders = result.getMetadata().getResponseHeaders();
+        String cacheControl = responseHeaders.get(HttpHeaderNames.CACHE_CONTROL);
+        if (hasDirective(cacheControl, HttpHeaderValues.NO_STORE.toString())) {
+            return null;
+        }
+        String etag = responseHeaders.get(HttpHeaderNames.ETAG);
+        String lastModified = responseHeaders.get(HttpHeaderNames.LAST_MODIFIED);
+        long freshnessMillis = freshnessMillis(cacheControl, responseHeaders, nowMillis);
+
+        //Without freshness or validators there is no way to ever reuse the entry
+        if (freshnessMillis <= 0 && etag == null && lastModified == null) {
+            return null;
+        }
+        return new CachedResponse(result, etag, lastModified, nowMillis + Math.max(freshnessMillis, 0),
+                bodyBytes + ENTRY_OVERHEAD_BYTES);
+    }
+
+    public boolean isFresh(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+
+    /**
+     * Adds If-None-Match/If-Modified-Since so the server can answer 304 Not Modified instead of resending the body
+     */
+    public void addValidators(HttpHeaders requestHeaders) {
+        if (etag != null) {
+            requestHeaders.set(HttpHeaderNames.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            requestHeaders.set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    /**
+     * @param notModifiedHeaders headers of the 304 response, which may update freshness and validators
+     * @param nowMillis          current wall clock time
+     * @return this entry made fresh again
+     */
+    CachedResponse revalidated(HttpHeaders notModifiedHeaders, long nowMillis) {
+        String cacheControl = notModifiedHeaders.get(HttpHeaderNames.CACHE_CONTROL);
+        long freshnessMillis = freshnessMillis(cacheControl, notModifiedHeaders, nowMillis);
+        String newEtag = notModifiedHeaders.get(HttpHeaderNames.ETAG);
+        String newLastModified = notModifiedHeaders.get(HttpHeaderNames.LAST_MODIFIED);
+        return new CachedResponse(result, newEtag != null ? newEtag : etag, newLastModified != null ? newLastModified : lastModified,
+                nowMillis + Math.max(freshnessMillis, 0), sizeBytes);
+    }
+
+    /**
+     * @return the cached result, immutable and therefore returned as is
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RestApiResult<T> toResult() {
+        return (RestApiResult<T>) result;
+    }
+
+    /**
+     * Freshness lifetime per RFC 9111: max-age wins over Expires, no-cache forces revalidation on every use
+     */
+    private static long freshnessMillis(String cacheControl, HttpHeaders headers, long nowMillis) {
+        if (hasDirective(cacheControl, HttpHeaderValues.NO_CACHE.toString())) {
+            return 0;
+        }
+        long maxAgeSeconds = directiveSeconds(cacheControl, HttpHeaderValues.MAX_AGE.toString());
+        if (maxAgeSeconds >= 0) {
+            return maxAgeSeconds * 1000;
+        }
+        String expires = headers.get(HttpHeaderNames.EXPIRES);
+        if (expires != null) {
+            Date expiresDate = DateFormatter.parseHttpDate(expires);
+            if (expiresDate == null) {
+                //An invalid Expires, e.g. "0", means already expired
+                return 0;
+            }
+            Date date = DateFormatter.parseHttpDate(headers.get(HttpHeaderNames.DATE, ""));
+            return expiresDate.getTime() - (date != null ? date.getTime() : nowMillis);
+        }
+        return 0;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String token : cacheControl.split(",")) {
+            String trimmed = token.trim();
+            if (trimmed.regionMatches(true, 0, directive, 0, directive.length())
+                    && (trimmed.length() == directive.length() || trimmed.charAt(directive.length()) == '=')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long directiveSeconds(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return -1;
+        }
+        for (String token : cacheControl.split(",")) {
+            String trimmed = token.trim();
+            if (trimmed.length() > directive.length() && trimmed.regionMatches(true, 0, directive, 0, directive.length())
+                    && trimmed.charAt(directive.length()) == '=') {
+                try {
+                    return Long.parseLong(trimmed.substring(directive.length() + 1).replace("\"", "").trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+}
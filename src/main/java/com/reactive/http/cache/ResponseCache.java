@@ -0,0 +1,160 @@
+package com.reactive.http.cache;
+
+import io.netty.handler.codec.http.HttpHeaders;
+import lombok.Value;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, HTTP semantics aware cache of deserialized GET results, see {@code RestClientManager.Config#responseCache}.
+ * <p>
+ * Entries are keyed by url and target type, since the same url deserialized to another type is another value. The
+ * cache is bounded both by entry count and by the received body bytes of its entries, evicting the least recently used
+ * entries first. Fresh entries are served without touching the network or Jackson, stale entries with an ETag or
+ * Last-Modified are revalidated and a 304 Not Modified is served from the cache.
+ * <p>
+ * Vary is not honoured, which is safe as long as the request headers of a client do not change per call.
+ */
+public class ResponseCache {
+
+    private final long maxEntries;
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries maximum number of cached results
+     * @param maxBytes   maximum sum of the body sizes of cached results
+     */
+    public ResponseCache(long maxEntries, long maxBytes) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("maxEntries and maxBytes must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cached entry, fresh or stale, null if absent. A fresh entry counts as a hit, anything else as a miss
+     */
+    public CachedResponse get(Key key, long nowMillis) {
+        CachedResponse cachedResponse;
+        lock.lock();
+        try {
+            cachedResponse = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (cachedResponse != null && cachedResponse.isFresh(nowMillis)) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cachedResponse;
+    }
+
+    /**
+     * Stores an entry, evicting least recently used entries until the cache is within its bounds again
+     */
+    public void put(Key key, CachedResponse cachedResponse) {
+        if (cachedResponse.getSizeBytes() > maxBytes) {
+            invalidate(key);
+            return;
+        }
+        lock.lock();
+        try {
+            CachedResponse previous = entries.put(key, cachedResponse);
+            totalBytes += cachedResponse.getSizeBytes() - (previous != null ? previous.getSizeBytes() : 0);
+            Iterator<CachedResponse> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+                totalBytes -= eldest.next().getSizeBytes();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes a stale entry after a 304 Not Modified
+     *
+     * @return the refreshed entry
+     */
+    public CachedResponse revalidate(Key key, CachedResponse stale, HttpHeaders notModifiedHeaders, long nowMillis) {
+        CachedResponse refreshed = stale.revalidated(notModifiedHeaders, nowMillis);
+        put(key, refreshed);
+        revalidations.increment();
+        return refreshed;
+    }
+
+    public void invalidate(Key key) {
+        lock.lock();
+        try {
+            CachedResponse removed = entries.remove(key);
+            if (removed != null) {
+                totalBytes -= removed.getSizeBytes();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), revalidations.sum(), evictions.sum(), entries.size(), totalBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cache key, the url of the GET and the type its body was deserialized to
+     */
+    @Value
+    public static class Key {
+        String url;
+        Type type;
+    }
+
+    /**
+     * Point in time snapshot of the cache counters. Hits were served without the network, misses include stale entries,
+     * of which revalidations are the ones answered by a 304 and so served without transferring or deserializing a body
+     */
+    @Value
+    public static class Stats {
+        long hitCount;
+        long missCount;
+        long revalidationCount;
+        long evictionCount;
+        long entryCount;
+        long totalBytes;
+
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.reactive.http.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.reactive.http.model.ErrorResponse;
+import com.reactive.http.model.RestApiListResult;
+import com.reactive.http.model.RestApiResult;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Synchronous facade of a {@link RestClientManager} for imperative callers, meant to be called from virtual threads.
+ * <p>
+ * Every call runs on the client's event loops and the caller waits for the result by parking, which on a virtual thread
+ * unmounts it from its carrier, so thousands of concurrent callers cost no more than the calls themselves. No monitor is
+ * held while waiting, so callers are never pinned to a carrier on the request path. On Java 21 and later
+ * {@link #newCallerExecutor(String)} runs tasks on virtual threads; earlier runtimes get platform threads, where each
+ * waiting call occupies a thread just like the *Async methods of RestClientManager.
+ * <p>
+ * Like RestClientManager, no method throws: failures, timeouts and calls made from an event loop thread, where blocking
+ * is not allowed, are returned as unsuccessful results.
+ */
+public class BlockingRestClient {
+
+    private final RestClientManager restClientManager;
+    private final Duration timeout;
+
+    public BlockingRestClient(RestClientManager restClientManager) {
+        this(restClientManager, null);
+    }
+
+    /**
+     * @param restClientManager client making the calls
+     * @param timeout           longest wait for a result, unlimited if null. The client's responseTimeout is usually the
+     *                          better place to bound calls, this only bounds the caller's wait
+     */
+    public BlockingRestClient(RestClientManager restClientManager, Duration timeout) {
+        this.restClientManager = restClientManager;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads and {@link #newCallerExecutor(String)} uses them
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * @return true if the current thread is a virtual thread
+     */
+    public static boolean isOnVirtualThread() {
+        return VirtualThreads.isVirtual(Thread.currentThread());
+    }
+
+    /**
+     * @param name prefix of the thread names
+     * @return executor running each task on a new virtual thread on Java 21 and later, on a cached daemon platform thread
+     * before. Owned by the caller, who shuts it down
+     */
+    public static ExecutorService newCallerExecutor(String name) {
+        return VirtualThreads.newThreadPerTaskExecutor(name);
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP GET call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url        url of resource to retrieve
+     * @param returnType Type to deserialize to
+     * @return APIResult with deserialized value of response
+     */
+    public <T> RestApiResult<T> getResource(String url, Class<T> returnType) {
+        return await(restClientManager.getResource(url, returnType));
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP GET call and shall deserialize the result to the parameterised type passed in <T>
+     *
+     * @param url        url of resource to retrieve
+     * @param returnType Type to deserialize to
+     * @return APIResult with deserialized value of response
+     */
+    public <T> RestApiResult<T> getResource(String url, TypeReference<T> returnType) {
+        return await(restClientManager.getResource(url, returnType));
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP GET call and shall deserialize the result to a list of whatever class passed in <T>
+     *
+     * @param url        url of resources to retrieve
+     * @param returnType Type to deserialize list to
+     * @return APIResult with deserialized values of response
+     */
+    public <T> RestApiListResult<T> getResources(String url, Class<T> returnType) {
+        RestApiResult<List<T>> result = await(restClientManager.getResources(url, returnType));
+        //Only a failed wait yields a plain result
+        return result instanceof RestApiListResult ? (RestApiListResult<T>) result : new RestApiListResult<>(result);
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP POST call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url          url of resource to post to
+     * @param objectToPost object to serialize as request body
+     * @return APIResult with deserialized value of response
+     */
+    public <T> RestApiResult<T> postResource(String url, T objectToPost) {
+        return await(restClientManager.postResource(url, objectToPost));
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP PATCH call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url           url of resource to patch
+     * @param objectToPatch object to serialize as request body
+     * @return APIResult with deserialized value of patched resource
+     */
+    public <T> RestApiResult<T> patchResource(String url, T objectToPatch) {
+        return await(restClientManager.patchResource(url, objectToPatch));
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP PUT call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url         url of resource to PUT
+     * @param objectToPut object to serialize as request body
+     * @return APIResult with deserialized value of response
+     */
+    public <T> RestApiResult<T> putResource(String url, T objectToPut) {
+        return await(restClientManager.putResource(url, objectToPut));
+    }
+
+    /**
+     * This Method should be used to make a blocking HTTP DELETE call and shall return an empty successResult <T>
+     *
+     * @param url url of resource to delete
+     * @return APIResult with empty successResult
+     */
+    public <T> RestApiResult<T> deleteResource(String url) {
+        return await(restClientManager.deleteResource(url));
+    }
+
+    private <T> RestApiResult<T> await(Mono<? extends RestApiResult<T>> resultMono) {
+        return RestClientManager.await(resultMono, timeout);
+    }
+}
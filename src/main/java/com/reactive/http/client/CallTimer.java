@@ -0,0 +1,123 @@
+package com.reactive.http.client;
+
+import com.reactive.http.metrics.ClientMetrics;
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxOperator;
+import reactor.util.context.Context;
+
+/**
+ * Phase timings of one call: time to first byte, body receive, decoding and total latency.
+ * <p>
+ * Signals of a call are serialized by Reactor, so the plain fields need no synchronization. Decoding runs inline while
+ * a chunk is emitted, so the time the chunk spends downstream of the body is the time spent tokenizing and binding it.
+ * The last value is bound on completion, where synchronous work of the caller on the result is counted too.
+ */
+class CallTimer {
+
+    private final ClientMetrics clientMetrics;
+    private final String host;
+    private final String method;
+    private final long startNanos;
+    private long headersNanos;
+    private long decodeNanos;
+    private int statusCode;
+
+    CallTimer(ClientMetrics clientMetrics, String host, String method) {
+        this.clientMetrics = clientMetrics;
+        this.host = host;
+        this.method = method;
+        this.startNanos = System.nanoTime();
+    }
+
+    void onHeaders(int statusCode) {
+        this.statusCode = statusCode;
+        headersNanos = System.nanoTime();
+        clientMetrics.recordTimeToFirstByte(host, method, headersNanos - startNanos);
+    }
+
+    void onComplete(int statusCode) {
+        clientMetrics.recordRequest(host, method, statusCode, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Completion of a streamed call, tagged with the status its headers carried or 0 if it failed before a response
+     */
+    void onTerminate() {
+        onComplete(statusCode);
+    }
+
+    /**
+     * @return the body, timing its receipt and the decoding done while its chunks are emitted
+     */
+    Flux<ByteBuf> timed(Flux<ByteBuf> body) {
+        return new TimedBody(body);
+    }
+
+    private final class TimedBody extends FluxOperator<ByteBuf, ByteBuf> {
+
+        private TimedBody(Flux<ByteBuf> source) {
+            super(source);
+        }
+
+        @Override
+        public void subscribe(CoreSubscriber<? super ByteBuf> actual) {
+            source.subscribe(new TimedBodySubscriber(actual));
+        }
+    }
+
+    private final class TimedBodySubscriber implements CoreSubscriber<ByteBuf>, Subscription {
+
+        private final CoreSubscriber<? super ByteBuf> actual;
+        private Subscription subscription;
+
+        private TimedBodySubscriber(CoreSubscriber<? super ByteBuf> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(ByteBuf chunk) {
+            long emitNanos = System.nanoTime();
+            actual.onNext(chunk);
+            decodeNanos += System.nanoTime() - emitNanos;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            long receivedNanos = System.nanoTime();
+            clientMetrics.recordBodyReceiveTime(host, method, receivedNanos - headersNanos);
+            //Values completed by the last chunk are bound on completion
+            actual.onComplete();
+            decodeNanos += System.nanoTime() - receivedNanos;
+            clientMetrics.recordDeserializeTime(host, method, decodeNanos);
+        }
+
+        @Override
+        public void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            subscription.cancel();
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+    }
+}
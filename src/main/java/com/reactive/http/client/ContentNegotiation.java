@@ -0,0 +1,79 @@
+package com.reactive.http.client;
+
+import com.reactive.http.codec.Codec;
+import com.reactive.http.codec.JsonCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the {@link Codec} of a call: the host's codec, or the client's default one, encodes request bodies and is
+ * preferred in Accept, the response is decoded by whichever known codec supports its Content-Type.
+ * <p>
+ * JSON is always offered at a lower quality when another codec is preferred, so servers not speaking the binary format
+ * still answer in a format the client can decode.
+ */
+class ContentNegotiation {
+
+    private static final String JSON_FALLBACK = JsonCodec.MEDIA_TYPE + ";q=0.5";
+
+    private final Codec defaultCodec;
+    private final Map<String, Codec> hostCodecs;
+    private final List<Codec> codecs;
+
+    /**
+     * @param jsonCodec    codec of JSON responses when another codec is preferred
+     * @param defaultCodec codec of hosts without their own
+     * @param hostCodecs   codecs by host[:port]
+     */
+    ContentNegotiation(Codec jsonCodec, Codec defaultCodec, Map<String, Codec> hostCodecs) {
+        this.defaultCodec = defaultCodec;
+        this.hostCodecs = Map.copyOf(hostCodecs);
+        List<Codec> knownCodecs = new ArrayList<>();
+        knownCodecs.add(defaultCodec);
+        for (Codec hostCodec : hostCodecs.values()) {
+            if (!knownCodecs.contains(hostCodec)) {
+                knownCodecs.add(hostCodec);
+            }
+        }
+        if (!knownCodecs.contains(jsonCodec)) {
+            knownCodecs.add(jsonCodec);
+        }
+        this.codecs = List.copyOf(knownCodecs);
+    }
+
+    /**
+     * @return codec encoding request bodies to the url's host
+     */
+    Codec requestCodec(String url) {
+        if (hostCodecs.isEmpty()) {
+            return defaultCodec;
+        }
+        return hostCodecs.getOrDefault(RestClientManager.hostOf(url), defaultCodec);
+    }
+
+    /**
+     * @param contentType Content-Type of the response, may be null
+     * @return codec decoding the response, the request codec if the Content-Type is missing or unknown
+     */
+    Codec responseCodec(String url, String contentType) {
+        Codec requestCodec = requestCodec(url);
+        if (contentType == null || requestCodec.supports(contentType)) {
+            return requestCodec;
+        }
+        for (Codec codec : codecs) {
+            if (codec.supports(contentType)) {
+                return codec;
+            }
+        }
+        return requestCodec;
+    }
+
+    /**
+     * @return Accept header value preferring the codec
+     */
+    static String accept(Codec codec) {
+        return codec.supports(JsonCodec.MEDIA_TYPE) ? codec.getMediaType() : codec.getMediaType() + ", " + JSON_FALLBACK;
+    }
+}
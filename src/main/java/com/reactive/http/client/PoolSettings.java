@@ -0,0 +1,96 @@
+package com.reactive.http.client;
+
+import lombok.Builder;
+import lombok.Value;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings, applied either to every remote host or to a single one through
+ * {@link RestClientManager.Config.ConfigBuilder#hostPool(String, PoolSettings)}.
+ * <p>
+ * Unset values keep the reactor-netty defaults.
+ */
+@Value
+@Builder(toBuilder = true)
+public class PoolSettings {
+
+    /**
+     * Maximum number of connections per remote host
+     */
+    @Builder.Default
+    int maxConnections = ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS;
+
+    /**
+     * Maximum number of requests waiting for a connection once the pool is exhausted, -1 for no limit
+     */
+    Integer pendingAcquireMaxCount;
+
+    /**
+     * How long a request may wait for a connection before failing
+     */
+    Duration pendingAcquireTimeout;
+
+    /**
+     * Idle connections older than this are closed instead of reused
+     */
+    Duration maxIdleTime;
+
+    /**
+     * Connections older than this are closed instead of reused, regardless of activity
+     */
+    Duration maxLifeTime;
+
+    /**
+     * Interval of the background eviction of idle and expired connections, eviction only happens on acquire otherwise
+     */
+    Duration evictInBackground;
+
+    /**
+     * Reuse the most recently released connection first, letting surplus connections idle out
+     */
+    boolean lifo;
+
+    /**
+     * Maximum number of concurrent streams per HTTP/2 connection, on top of the server's own limit. Once every
+     * connection is at the cap a new one is opened, up to maxConnections. The server's limit alone if unset, no effect
+     * on HTTP/1.1
+     */
+    Long maxConcurrentStreams;
+
+    /**
+     * Publish reactor-netty's pool gauges (active, idle, pending) to Micrometer, which must be on the classpath
+     */
+    boolean metrics;
+
+    <S extends ConnectionProvider.ConnectionPoolSpec<S>> void applyTo(S spec) {
+        spec.maxConnections(maxConnections);
+        if (pendingAcquireMaxCount != null) {
+            spec.pendingAcquireMaxCount(pendingAcquireMaxCount);
+        }
+        if (pendingAcquireTimeout != null) {
+            spec.pendingAcquireTimeout(pendingAcquireTimeout);
+        }
+        if (maxIdleTime != null) {
+            spec.maxIdleTime(maxIdleTime);
+        }
+        if (maxLifeTime != null) {
+            spec.maxLifeTime(maxLifeTime);
+        }
+        if (evictInBackground != null) {
+            spec.evictInBackground(evictInBackground);
+        }
+        if (lifo) {
+            spec.lifo();
+        }
+        if (maxConcurrentStreams != null) {
+            spec.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConcurrentStreams(maxConcurrentStreams)
+                    .maxConnections(maxConnections)
+                    .build());
+        }
+        spec.metrics(metrics);
+    }
+}
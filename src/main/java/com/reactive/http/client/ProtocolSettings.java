@@ -0,0 +1,57 @@
+package com.reactive.http.client;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.Set;
+
+/**
+ * HTTP protocol settings of a {@link RestClientManager}, either for every host or for a single host:port.
+ * <p>
+ * With HTTP/2 many concurrent requests are multiplexed as streams over a few connections instead of one connection
+ * per in-flight request, and the pool's maxConnections then bounds connections rather than concurrent requests. Streams
+ * per connection are capped by {@link PoolSettings#getMaxConcurrentStreams()} and the server's own limit.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ProtocolSettings {
+
+    /**
+     * Protocols that may be used: H2 is negotiated through ALPN on https urls and falls back to HTTP11 if offered too,
+     * H2C alone speaks HTTP/2 with prior knowledge on plain http urls, H2C together with HTTP11 upgrades. HTTP11 only if
+     * empty
+     */
+    @Singular
+    Set<HttpProtocol> protocols;
+
+    /**
+     * @return HTTP/1.1 only, the default
+     */
+    public static ProtocolSettings http11() {
+        return ProtocolSettings.builder().protocol(HttpProtocol.HTTP11).build();
+    }
+
+    /**
+     * @return HTTP/2 over TLS negotiated through ALPN, falling back to HTTP/1.1 for servers or urls without it
+     */
+    public static ProtocolSettings h2() {
+        return ProtocolSettings.builder().protocol(HttpProtocol.H2).protocol(HttpProtocol.HTTP11).build();
+    }
+
+    /**
+     * @return cleartext HTTP/2 with prior knowledge, for plain http hosts known to speak HTTP/2
+     */
+    public static ProtocolSettings h2c() {
+        return ProtocolSettings.builder().protocol(HttpProtocol.H2C).build();
+    }
+
+    HttpClient applyTo(HttpClient client) {
+        if (protocols.isEmpty()) {
+            return client;
+        }
+        return client.protocol(protocols.toArray(new HttpProtocol[0]));
+    }
+}
@@ -0,0 +1,148 @@
+package com.reactive.http.client;
+
+import com.reactive.http.metrics.ClientMetrics;
+import com.reactive.http.metrics.PoolGauges;
+import reactor.netty.http.client.HttpClientMetricsRecorder;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Feeds reactor-netty's connection level measurements and pool gauges into {@link ClientMetrics}.
+ * <p>
+ * Only connect and TLS timings, wire bytes and pools are taken from reactor-netty. Per call timings are measured by
+ * RestClientManager itself, tagged with the url host rather than the resolved address.
+ */
+class ReactorNettyMetrics implements HttpClientMetricsRecorder, ConnectionProvider.MeterRegistrar {
+
+    private static final String SUCCESS = "SUCCESS";
+
+    private final ClientMetrics clientMetrics;
+    //Byte counts are recorded for every read and write, so each address is formatted once
+    private final ConcurrentMap<SocketAddress, String> formattedAddresses = new ConcurrentHashMap<>();
+
+    ReactorNettyMetrics(ClientMetrics clientMetrics) {
+        this.clientMetrics = clientMetrics;
+    }
+
+    @Override
+    public void recordDataReceived(SocketAddress remoteAddress, long bytes) {
+        clientMetrics.recordBytesReceived(format(remoteAddress), bytes);
+    }
+
+    @Override
+    public void recordDataSent(SocketAddress remoteAddress, long bytes) {
+        clientMetrics.recordBytesSent(format(remoteAddress), bytes);
+    }
+
+    @Override
+    public void recordConnectTime(SocketAddress remoteAddress, Duration time, String status) {
+        clientMetrics.recordConnectTime(format(remoteAddress), time.toNanos(), SUCCESS.equals(status));
+    }
+
+    @Override
+    public void recordTlsHandshakeTime(SocketAddress remoteAddress, Duration time, String status) {
+        clientMetrics.recordTlsHandshakeTime(format(remoteAddress), time.toNanos(), SUCCESS.equals(status));
+    }
+
+    //Call level timings and errors are recorded by RestClientManager
+    @Override
+    public void recordResolveAddressTime(SocketAddress remoteAddress, Duration time, String status) {
+    }
+
+    @Override
+    public void incrementErrorsCount(SocketAddress remoteAddress) {
+    }
+
+    @Override
+    public void incrementErrorsCount(SocketAddress remoteAddress, String uri) {
+    }
+
+    //The channel level overloads above already count these bytes, including headers
+    @Override
+    public void recordDataReceived(SocketAddress remoteAddress, String uri, long bytes) {
+    }
+
+    @Override
+    public void recordDataSent(SocketAddress remoteAddress, String uri, long bytes) {
+    }
+
+    @Override
+    public void recordDataReceivedTime(SocketAddress remoteAddress, String uri, String method, String status, Duration time) {
+    }
+
+    @Override
+    public void recordDataSentTime(SocketAddress remoteAddress, String uri, String method, Duration time) {
+    }
+
+    @Override
+    public void recordResponseTime(SocketAddress remoteAddress, String uri, String method, String status, Duration time) {
+    }
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        clientMetrics.registerPool(poolName, format(remoteAddress), new PoolGauges() {
+            @Override
+            public int activeConnections() {
+                return metrics.acquiredSize();
+            }
+
+            @Override
+            public int idleConnections() {
+                return metrics.idleSize();
+            }
+
+            @Override
+            public int pendingAcquires() {
+                return metrics.pendingAcquireSize();
+            }
+
+            @Override
+            public int maxConnections() {
+                return metrics.maxAllocatedSize();
+            }
+        });
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        clientMetrics.deregisterPool(poolName, format(remoteAddress));
+        formattedAddresses.remove(remoteAddress);
+    }
+
+    /**
+     * host:port, keeping the host name the address was resolved from
+     */
+    private String format(SocketAddress remoteAddress) {
+        String formatted = formattedAddresses.get(remoteAddress);
+        //Resolved addresses are equal by IP alone, so a cached key is only reused for the host name it was made from
+        if (formatted == null || !formattedFrom(formatted, remoteAddress)) {
+            formatted = formatUncached(remoteAddress);
+            formattedAddresses.put(remoteAddress, formatted);
+        }
+        return formatted;
+    }
+
+    private static boolean formattedFrom(String formatted, SocketAddress remoteAddress) {
+        if (!(remoteAddress instanceof InetSocketAddress)) {
+            return true;
+        }
+        String hostString = ((InetSocketAddress) remoteAddress).getHostString();
+        return formatted.length() > hostString.length()
+                && formatted.charAt(hostString.length()) == ':'
+                && formatted.startsWith(hostString);
+    }
+
+    private static String formatUncached(SocketAddress remoteAddress) {
+        if (remoteAddress instanceof InetSocketAddress) {
+            InetSocketAddress address = (InetSocketAddress) remoteAddress;
+            return address.getHostString() + ":" + address.getPort();
+        }
+        return String.valueOf(remoteAddress);
+    }
+}
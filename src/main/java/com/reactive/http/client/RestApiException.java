@@ -0,0 +1,18 @@
+package com.reactive.http.client;
+
+import com.reactive.http.model.ErrorResponse;
+import lombok.Getter;
+
+/**
+ * Signalled by the streaming {@link RestClientManager} methods (those returning a {@code Flux}) when the call fails,
+ * since a {@code Flux<T>} has no {@code RestApiResult} to carry the {@link ErrorResponse}.
+ */
+@Getter
+public class RestApiException extends RuntimeException {
+    private final transient ErrorResponse errorResponse;
+
+    public RestApiException(ErrorResponse errorResponse) {
+        super(errorResponse.getErrorDescription(), errorResponse.getException());
+        this.errorResponse = errorResponse;
+    }
+}
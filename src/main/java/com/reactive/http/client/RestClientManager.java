@@ -1,468 +1,968 @@
 package com.reactive.http.client;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.async.ByteArrayFeeder;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.reactive.http.cache.CachedResponse;
+import com.reactive.http.cache.ResponseCache;
+import com.reactive.http.codec.Codec;
+import com.reactive.http.codec.GzipCompressor;
+import com.reactive.http.codec.JacksonCache;
+import com.reactive.http.codec.JsonCodec;
+import com.reactive.http.lb.EndpointSource;
+import com.reactive.http.lb.LoadBalancer;
+import com.reactive.http.lb.LoadBalancerPolicy;
+import com.reactive.http.lb.LoadBalancerStats;
+import com.reactive.http.limit.LimitPolicy;
+import com.reactive.http.limit.LimitStats;
+import com.reactive.http.limit.RequestLimiter;
+import com.reactive.http.metrics.ClientMetrics;
+import com.reactive.http.metrics.TracePropagator;
 import com.reactive.http.model.ErrorResponse;
+import com.reactive.http.model.ResponseMetadata;
+import com.reactive.http.model.RestApiBatchResult;
+import com.reactive.http.model.RestApiListResult;
 import com.reactive.http.model.RestApiResult;
+import com.reactive.http.resilience.ResiliencePipeline;
+import com.reactive.http.resilience.ResiliencePolicy;
+import com.reactive.http.resilience.ResilienceStats;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.compression.Brotli;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
-import org.reactivestreams.Publisher;
+import io.netty.handler.codec.http.HttpUtil;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
 import reactor.netty.ByteBufFlux;
+import reactor.netty.http.HttpResources;
 import reactor.netty.http.client.HttpClient;
-import reactor.netty.http.client.HttpClientResponse;
-
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
-import java.util.stream.Stream;
-
-import static io.netty.handler.codec.http.HttpHeaders.*;
 
 public class RestClientManager {
 
-    private static  HttpClient httpClient = HttpClient.create();
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String ERROR_STATUS_MESSAGE = "Received Error Status Code";
+    private static final int MAX_ERROR_BODY_BYTES = 8 * 1024;
+    private static final String BLACKBIRD_MODULE_CLASS = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String APPLICATION_STREAM_JSON = "application/stream+json";
+    private static final String ACCEPT_ENCODING = HttpHeaderValues.GZIP + ", " + HttpHeaderValues.DEFLATE
+            + (Brotli.isAvailable() ? ", " + HttpHeaderValues.BR : "");
+    private static final String STREAM_ACCEPT = HttpHeaderValues.APPLICATION_JSON + ", " + APPLICATION_NDJSON + ", " + APPLICATION_STREAM_JSON;
+
+    private static final ObjectMapper DEFAULT_MAPPER = JsonMapper.builder()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .build();
+    private static final JacksonCache DEFAULT_JACKSON_CACHE = new JacksonCache(DEFAULT_MAPPER);
+    private static final JsonCodec DEFAULT_JSON_CODEC = new JsonCodec(DEFAULT_JACKSON_CACHE);
+    private static final ContentNegotiation DEFAULT_CONTENT_NEGOTIATION = new ContentNegotiation(DEFAULT_JSON_CODEC, DEFAULT_JSON_CODEC, Map.of());
+    private static final HttpClient DEFAULT_HTTP_CLIENT = withCodecHeaders(HttpClient.create(), DEFAULT_JSON_CODEC);
+
+    private final HttpClient httpClient;
+    private final Map<String, HttpClient> hostClients;
+    private final JacksonCache jacksonCache;
+    private final Codec jsonCodec;
+    private final ContentNegotiation contentNegotiation;
+    private final ConnectionProvider connectionProvider;
+    private final LoopResources loopResources;
+    private final ResponseCache responseCache;
+    private final SingleFlight<ResponseCache.Key> singleFlight;
+    private final ResiliencePipeline resiliencePipeline;
+    private final LoadBalancer loadBalancer;
+    private final RequestLimiter requestLimiter;
+    private final ClientMetrics clientMetrics;
+    private final boolean logSignals;
+    private final int requestCompressionThreshold;
 
+    /**
+     * Creates a client backed by reactor-netty's global connection pool and event loops, cheap enough to create per use
+     */
     public RestClientManager() {
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        httpClient = httpClient.headers(h -> {
-            h.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
-            h.set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON);
-        });
+        this.httpClient = DEFAULT_HTTP_CLIENT;
+        this.hostClients = Map.of();
+        this.jacksonCache = DEFAULT_JACKSON_CACHE;
+        this.jsonCodec = DEFAULT_JSON_CODEC;
+        this.contentNegotiation = DEFAULT_CONTENT_NEGOTIATION;
+        this.connectionProvider = null;
+        this.loopResources = null;
+        this.responseCache = null;
+        this.singleFlight = null;
+        this.resiliencePipeline = null;
+        this.loadBalancer = null;
+        this.requestLimiter = null;
+        this.clientMetrics = ClientMetrics.NOOP;
+        this.logSignals = false;
+        this.requestCompressionThreshold = 0;
     }
 
     /**
-     * This Method should be used to make an HTTP GET call and shall deserialize the result to whatever class passed in <T>
+     * Creates a client with its own connection pool and, if configured, its own event loops. Create once and share,
+     * then release the resources with {@link #dispose()}
+     *
+     * @param config pool, timeout and event loop settings
+     */
+    public RestClientManager(Config config) {
+        ObjectMapper mapper = config.getObjectMapper() != null ? config.getObjectMapper() : DEFAULT_MAPPER;
+        if (config.isBytecodeAccessors()) {
+            //Copy so the generated accessors do not leak into a caller supplied or the shared mapper
+            mapper = mapper.copy().registerModule(blackbirdModule());
+        }
+        this.jacksonCache = mapper == DEFAULT_MAPPER ? DEFAULT_JACKSON_CACHE : new JacksonCache(mapper);
+        this.jsonCodec = mapper == DEFAULT_MAPPER ? DEFAULT_JSON_CODEC : new JsonCodec(jacksonCache);
+        Codec defaultCodec = config.getCodec() != null ? config.getCodec() : jsonCodec;
+        this.contentNegotiation = new ContentNegotiation(jsonCodec, defaultCodec, config.getHostCodecs());
+        this.responseCache = config.getResponseCache();
+        this.singleFlight = config.isCoalesceGets() ? new SingleFlight<>() : null;
+        this.resiliencePipeline = config.getResilience() != null ? new ResiliencePipeline(config.getResilience()) : null;
+        this.loadBalancer = !config.getServices().isEmpty() ? new LoadBalancer(config.getLoadBalancer(), config.getServices()) : null;
+        this.requestLimiter = config.getLimits() != null ? new RequestLimiter(config.getLimits()) : null;
+        this.clientMetrics = config.getMetrics() != null ? config.getMetrics() : ClientMetrics.NOOP;
+        this.logSignals = config.isLogSignals();
+        this.requestCompressionThreshold = config.getRequestCompressionThreshold();
+        ReactorNettyMetrics reactorNettyMetrics = config.getMetrics() != null ? new ReactorNettyMetrics(config.getMetrics()) : null;
+        this.connectionProvider = buildConnectionProvider(config, reactorNettyMetrics);
+        this.loopResources = config.getIoWorkerCount() > 0
+                ? LoopResources.create(config.getName() + "-loop", config.getIoWorkerCount(), true)
+                : null;
+
+        HttpClient client = HttpClient.create(connectionProvider)
+                .runOn(loopResources != null ? loopResources : HttpResources.get(), config.isNativeTransport());
+        if (config.getConnectTimeout() != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) config.getConnectTimeout().toMillis());
+        }
+        if (config.getResponseTimeout() != null) {
+            client = client.responseTimeout(config.getResponseTimeout());
+        }
+        if (config.isCompressResponses()) {
+            //Responses are inflated chunk by chunk in the pipeline, the decoder still sees the body as it arrives
+            client = client.compress(true).headers(h -> h.set(HttpHeaderNames.ACCEPT_ENCODING, ACCEPT_ENCODING));
+        }
+        if (reactorNettyMetrics != null) {
+            client = client.metrics(true, () -> reactorNettyMetrics);
+        }
+        TracePropagator tracePropagator = config.getTracePropagator();
+        if (tracePropagator != null) {
+            client = client.doOnRequest((httpClientRequest, connection) ->
+                    tracePropagator.inject(httpClientRequest.currentContextView(), httpClientRequest::header));
+        }
+        this.httpClient = withCodecHeaders(config.getProtocol().applyTo(client), defaultCodec);
+        //Built once, hosts with their own protocol or codec get a variant of the client sharing pool and event loops
+        Set<String> hosts = new HashSet<>(config.getHostProtocols().keySet());
+        hosts.addAll(config.getHostCodecs().keySet());
+        Map<String, HttpClient> clients = new HashMap<>();
+        for (String host : hosts) {
+            ProtocolSettings protocol = config.getHostProtocols().getOrDefault(host, config.getProtocol());
+            clients.put(host, withCodecHeaders(protocol.applyTo(client), config.getHostCodecs().getOrDefault(host, defaultCodec)));
+        }
+        this.hostClients = Map.copyOf(clients);
+    }
+
+    /**
+     * @return counters and circuit breaker states of the resilience pipeline, null if none is configured
+     */
+    public ResilienceStats getResilienceStats() {
+        return resiliencePipeline != null ? resiliencePipeline.stats() : null;
+    }
+
+    /**
+     * @return in-flight counts, latency EWMAs and ejections of the load balanced endpoints, null if no service is configured
+     */
+    public LoadBalancerStats getLoadBalancerStats() {
+        return loadBalancer != null ? loadBalancer.stats() : null;
+    }
+
+    /**
+     * @return throttled, queued and shed counts and the adaptive concurrency limits per host, null if no limits are configured
+     */
+    public LimitStats getLimitStats() {
+        return requestLimiter != null ? requestLimiter.stats() : null;
+    }
+
+    /**
+     * Releases the connection pool and event loops owned by this client, a no-op for clients using the global resources
+     */
+    public void dispose() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        if (loopResources != null) {
+            loopResources.dispose();
+        }
+    }
+
+    /**
+     * This Method should be used to make a non-blocking HTTP GET call and shall deserialize the result to whatever class passed in <T>
      * <p>
      * Note: This is for retrieving a single resource and upon success, the deserialized result will be available in APIResult.getSuccessResult()
      *
      * @param url        url of resource to retrieve
      * @param returnType Type to deserialize to
-     * @return APIResult with deserialized value of response
+     * @return Mono emitting APIResult with deserialized value of response, never an error signal
      */
-    public <T> RestApiResult<T> getResourceAsync(String url, Class<T> returnType) {
-        RestApiResult<T> restApiResult = new RestApiResult<>();
-        try {
-             httpClient.get()
-                    .uri(url)
-                    .responseSingle(((httpClientResponse, byteBufMono) -> {
+    public <T> Mono<RestApiResult<T>> getResource(String url, Class<T> returnType) {
+        JavaType javaType = jacksonCache.javaType(returnType);
+        return get(url, javaType, (metadata, body) -> codecFor(url, metadata).decodeToMono(body, javaType));
+    }
 
-                        //Populate Request metadata
-                        restApiResult.setRequestPath(httpClientResponse.fullPath());
-                        restApiResult.setHeaders(httpClientResponse.requestHeaders());
-                        restApiResult.setHttpMethod(httpClientResponse.method());
-                        restApiResult.setClientResponse(httpClientResponse);
+    /**
+     * This Method should be used to make a non-blocking HTTP GET call and shall deserialize the result to the parameterised type passed in <T>
+     * <p>
+     * Note: This is for retrieving a single resource of a generic type, e.g. {@code new TypeReference<Page<Order>>() {}}, and upon success,
+     * the deserialized result will be available in APIResult.getSuccessResult()
+     *
+     * @param url        url of resource to retrieve
+     * @param returnType Type to deserialize to
+     * @return Mono emitting APIResult with deserialized value of response, never an error signal
+     */
+    public <T> Mono<RestApiResult<T>> getResource(String url, TypeReference<T> returnType) {
+        JavaType javaType = jacksonCache.javaType(returnType);
+        return get(url, javaType, (metadata, body) -> codecFor(url, metadata).decodeToMono(body, javaType));
+    }
 
-                        //Determine if success
-                        HttpResponseStatus responseStatus = httpClientResponse.status();
+    /**
+     * This Method should be used to make a non-blocking HTTP GET call and shall deserialize the result to a list of whatever class passed in <T>
+     * <p>
+     * Note: This is for retrieving a list of resources and upon success, the deserialized result will be available in APIResult.getSuccessResults()
+     *
+     * @param url        url of resources to retrieve
+     * @param returnType Type to deserialize list to
+     * @return Mono emitting APIResult with deserialized values of response, never an error signal
+     */
+    public <T> Mono<RestApiListResult<T>> getResources(String url, Class<T> returnType) {
+        return getList(url, returnType).map(RestApiListResult::new);
+    }
 
-                        //If success, emit response as string to reactive flow
-                        if (responseStatus.code() >= 200 && responseStatus.code()< 300) {
-                            restApiResult.setSuccess(true);
-                            restApiResult.setHttpStatusCode(responseStatus.code());
-                            restApiResult.setHttpResponseStatus(responseStatus);
-                            //Attempt to deserialize and return ApiResult
-                            return byteBufMono.asString();
-                        }
+    /**
+     * This Method should be used to make many non-blocking HTTP GET calls with at most maxConcurrency of them in flight and shall emit each
+     * APIResult as soon as its call completes
+     * <p>
+     * Note: Results come in completion order, RestApiBatchResult.getUrl() tells which url a result belongs to. A failing call yields an
+     * unsuccessful APIResult and does not affect the other calls. Calls beyond the pool's maxConnections wait for a connection, so
+     * maxConcurrency should not exceed what the pool allows to be pending.
+     *
+     * @param urls           urls of resources to retrieve
+     * @param returnType     Type to deserialize to
+     * @param maxConcurrency maximum number of calls in flight
+     * @return Flux emitting one APIResult per url, never an error signal
+     */
+    public <T> Flux<RestApiBatchResult<T>> getResourcesBatch(Collection<String> urls, Class<T> returnType, int maxConcurrency) {
+        return getResourcesBatch(urls, returnType, maxConcurrency, false);
+    }
 
-                        //If error status code, populate ErrorResponse with appropriate HTTP level details and emit empty string
-                        populateHttpErrorDetails(restApiResult, responseStatus, httpClientResponse);
-                        return Mono.error(new Exception("Received Error Status Code"));
-
-                    }))
-                    .log(null, Level.INFO, SignalType.ON_NEXT) // log when data comes through pipeline
-                    .flatMap(s -> {
-                        try {
-                            //Attempt to deserialize and return ApiResult
-                            restApiResult.setSuccessResult(deserialize(s.getBytes(StandardCharsets.UTF_8), returnType));
-                            return Mono.empty();
-                        } catch (Exception e) {
-                            populateErrorDetails(restApiResult, e);
-                            e.printStackTrace();
-                            return Mono.error(e);
-                        }
-                    }).block();
-        } catch (Exception e) {
-            populateErrorDetails(restApiResult, e);
-            return restApiResult;
-        }
-        return restApiResult;
+    /**
+     * This Method should be used to make many non-blocking HTTP GET calls with at most maxConcurrency of them in flight
+     * <p>
+     * Note: With ordered set, results are emitted in the order of the urls. Calls still run concurrently, results completing ahead of an
+     * earlier url are held back until it completes, so a single slow call delays the emission of everything after it.
+     *
+     * @param urls           urls of resources to retrieve
+     * @param returnType     Type to deserialize to
+     * @param maxConcurrency maximum number of calls in flight
+     * @param ordered        whether to emit in the order of the urls rather than in completion order
+     * @return Flux emitting one APIResult per url, never an error signal
+     */
+    public <T> Flux<RestApiBatchResult<T>> getResourcesBatch(Collection<String> urls, Class<T> returnType, int maxConcurrency, boolean ordered) {
+        Flux<String> urlFlux = Flux.fromIterable(urls);
+        //getResource never signals an error, so one failing url cannot cancel the rest of the batch
+        return ordered
+                ? urlFlux.flatMapSequential(url -> batchResult(url, returnType), maxConcurrency)
+                : urlFlux.flatMap(url -> batchResult(url, returnType), maxConcurrency);
+    }
+
+    private <T> Mono<RestApiBatchResult<T>> batchResult(String url, Class<T> returnType) {
+        return getResource(url, returnType).map(result -> new RestApiBatchResult<>(url, result));
+    }
+
+    /**
+     * This Method should be used to make a non-blocking HTTP GET call and shall emit each deserialized element as soon as it is parsed from the socket
+     * <p>
+     * Note: Elements of a JSON array are emitted one by one, as are the values of a newline delimited JSON (application/x-ndjson) response.
+     * Reading from the connection pauses while the subscriber has no outstanding demand. If the call fails, the Flux terminates with a
+     * {@link RestApiException} carrying the ErrorResponse
+     *
+     * @param url        url of resources to stream
+     * @param returnType Type to deserialize elements to
+     * @return Flux of deserialized values of response
+     */
+    public <T> Flux<T> streamResources(String url, Class<T> returnType) {
+        Flux<T> stream = loadBalancer != null && LoadBalancer.isLoadBalanced(url)
+                ? loadBalancer.stream(url, targetUrl -> stream(url, targetUrl, returnType))
+                : stream(url, url, returnType);
+        return stream.onErrorMap(e -> !(e instanceof RestApiException), e -> new RestApiException(ErrorResponse.ofException(e)));
+    }
+
+    /**
+     * This Method should be used to make a non-blocking HTTP POST call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url          url of resource to post to
+     * @param objectToPost object to serialize as request body
+     * @return Mono emitting APIResult with deserialized value of response, never an error signal
+     */
+    public <T> Mono<RestApiResult<T>> postResource(String url, T objectToPost) {
+        return resilient(url, HttpMethod.POST, () -> exchange(url, HttpMethod.POST, targetUrl -> send(clientFor(targetUrl).post().uri(targetUrl), url, objectToPost), RestClientManager::is2xx,
+                (metadata, body) -> codecFor(url, metadata).decodeToMono(body, objectToPost.getClass())));
+    }
+
+    /**
+     * This Method should be used to make a non-blocking HTTP PATCH call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url           url of resource to patch
+     * @param objectToPatch object to serialize as request body
+     * @return Mono emitting APIResult with deserialized value of patched resource, never an error signal
+     */
+    public <T> Mono<RestApiResult<T>> patchResource(String url, T objectToPatch) {
+        return resilient(url, HttpMethod.PATCH, () -> exchange(url, HttpMethod.PATCH, targetUrl -> send(clientFor(targetUrl).patch().uri(targetUrl), url, objectToPatch), RestClientManager::is2xx,
+                (metadata, body) -> codecFor(url, metadata).decodeToMono(body, objectToPatch.getClass())));
+    }
+
+    /**
+     * This Method should be used to make a non-blocking HTTP PUT call and shall deserialize the result to whatever class passed in <T>
+     *
+     * @param url         url of resource to PUT
+     * @param objectToPut object to serialize as request body
+     * @return Mono emitting APIResult with deserialized value of response, never an error signal
+     */
+    public <T> Mono<RestApiResult<T>> putResource(String url, T objectToPut) {
+        return resilient(url, HttpMethod.PUT, () -> exchange(url, HttpMethod.PUT, targetUrl -> send(clientFor(targetUrl).put().uri(targetUrl), url, objectToPut), RestClientManager::is2xx,
+                (metadata, body) -> codecFor(url, metadata).decodeToMono(body, objectToPut.getClass())));
+    }
+
+    /**
+     * This Method should be used to make a non-blocking HTTP DELETE call and shall emit an empty successResult <T>
+     *
+     * @param url url of resource to delete
+     * @return Mono emitting APIResult with empty successResult, never an error signal
+     */
+    public <T> Mono<RestApiResult<T>> deleteResource(String url) {
+        return resilient(url, HttpMethod.DELETE, () -> exchange(url, HttpMethod.DELETE, targetUrl -> clientFor(targetUrl).delete().uri(targetUrl), code -> code == 200 || code == 204,
+                (metadata, body) -> body.then(Mono.<T>empty())));
     }
 
     /**
      * This Method should be used to make an HTTP GET call and shall deserialize the result to whatever class passed in <T>
      * <p>
-     * Note: This is for retrieving a list of resources and upon success, the deserialized result will be available in APIResult.getSuccessResults()
+     * Note: This blocks the calling thread until the response is deserialized, prefer {@link #getResource(String, Class)} on event loops
+     *
+     * @param url        url of resource to retrieve
+     * @param returnType Type to deserialize to
+     * @return APIResult with deserialized value of response
+     */
+    public <T> RestApiResult<T> getResourceAsync(String url, Class<T> returnType) {
+        return await(getResource(url, returnType), null);
+    }
+
+    /**
+     * This Method should be used to make an HTTP GET call and shall deserialize the result to the parameterised type passed in <T>
+     * <p>
+     * Note: This blocks the calling thread until the response is deserialized, prefer {@link #getResource(String, TypeReference)} on event loops
+     *
+     * @param url        url of resource to retrieve
+     * @param returnType Type to deserialize to
+     * @return APIResult with deserialized value of response
+     */
+    public <T> RestApiResult<T> getResourceAsync(String url, TypeReference<T> returnType) {
+        return await(getResource(url, returnType), null);
+    }
+
+    /**
+     * This Method should be used to make an HTTP GET call and shall deserialize the result to a list of whatever class passed in <T>
+     * <p>
+     * Note: This blocks the calling thread until the response is deserialized, prefer {@link #getResources(String, Class)} on event loops
      *
      * @param url        url of resources to retrieve
      * @param returnType Type to deserialize list to
      * @return APIResult with deserialized value of responses
      */
-    public static <T> RestApiResult<T> getResourcesAsync(String url, Class<T> returnType) {
-        RestApiResult<T> restApiResult = new RestApiResult<>();
-        try {
-//            RestApiResult<T> finalRestApiResult = restApiResult;
-             httpClient.get()
-                    .uri(url)
-                    .responseSingle(((httpClientResponse, byteBufMono) -> {
-
-                        //Populate Request metadata
-                        restApiResult.setRequestPath(httpClientResponse.fullPath());
-                        restApiResult.setHeaders(httpClientResponse.requestHeaders());
-                        restApiResult.setHttpMethod(httpClientResponse.method());
-                        restApiResult.setClientResponse(httpClientResponse);
-
-                        // Determine if success
-                        HttpResponseStatus responseStatus = httpClientResponse.status();
-
-                        //If success, emit response as string to reactive flow
-                        if (responseStatus.code() >= 200 && responseStatus.code() < 300) {
-                            restApiResult.setSuccess(true);
-                            restApiResult.setHttpStatusCode(responseStatus.code());
-                            restApiResult.setHttpResponseStatus(responseStatus);
-                            return byteBufMono.asString();
-                        }
-
-                        //If error status code, populate ErrorResponse with appropriate HTTP level details and emit empty string
-                        populateHttpErrorDetails(restApiResult, responseStatus, httpClientResponse);
-                        return Mono.just("");
-
-                    }))
-                    .log(null, Level.INFO, SignalType.ON_NEXT) // log when data comes through pipeline
-                    .flatMap(s -> {
-                        try {
-                            //Attempt to deserialize records and return ApiResult
-                            restApiResult.setSuccessResults(deserializeToList(s.getBytes(StandardCharsets.UTF_8), returnType));
-                            return Mono.just(restApiResult);
-                        } catch (Exception e) {
-                            populateErrorDetails(restApiResult, e);
-                            e.printStackTrace();
-                            return Mono.error(e);
-                        }
-                    }).block();
-            return restApiResult;
-        } catch (Exception e) {
-            populateErrorDetails(restApiResult, e);
-            throw e;
-        }
+    public <T> RestApiListResult<T> getResourcesAsync(String url, Class<T> returnType) {
+        return new RestApiListResult<>(await(getList(url, returnType), null));
     }
 
     /**
      * This Method should be used to make an HTTP POST call and shall deserialize the result to whatever class passed in <T>
      * <p>
-     * Note: This is for retrieving a list of resources and upon success, the deserialized result will be available in APIResult.getSuccessResult()
+     * Note: This blocks the calling thread until the response is deserialized, prefer {@link #postResource(String, Object)} on event loops
      *
-     * @param url          url of resources to retrieve
-     * @param objectToPost Type to deserialize list to
-     * @return APIResult with deserialized value of responses
+     * @param url          url of resource to post to
+     * @param objectToPost object to serialize as request body
+     * @return APIResult with deserialized value of response
      */
-    @SuppressWarnings("unchecked")
     public <T> RestApiResult<T> postResourceAsync(String url, T objectToPost) {
-        RestApiResult<T> restApiResult = new RestApiResult<>();
-        try {
-            String postData = mapper.writeValueAsString(objectToPost);
-            final Publisher<? extends ByteBuf> postBody = ByteBufFlux.fromString(Mono.just(postData));
-
-            httpClient.post()
-                    .uri(url)
-                    .send(postBody)
-                    .responseSingle((httpClientResponse, byteBufMono) -> {
-                        //Populate Request metadata
-                        restApiResult.setRequestPath(httpClientResponse.fullPath());
-                        restApiResult.setHeaders(httpClientResponse.requestHeaders());
-                        restApiResult.setHttpMethod(httpClientResponse.method());
-                        restApiResult.setClientResponse(httpClientResponse);
-
-                        //Determine if success
-                        HttpResponseStatus responseStatus = httpClientResponse.status();
-
-                        //If success, emit response as string to reactive flow
-                        if (responseStatus.code() >= 200 && responseStatus.code() < 300) {
-                            restApiResult.setSuccess(true);
-                            restApiResult.setHttpStatusCode(responseStatus.code());
-                            restApiResult.setHttpResponseStatus(responseStatus);
-                            return byteBufMono.asString();
-                        }
-
-                        //If error status code, populate ErrorResponse with appropriate HTTP level details and emit empty string
-                        populateHttpErrorDetails(restApiResult, responseStatus, httpClientResponse);
-                        return Mono.just("");
-                    })
-                    .flatMap(s -> {
-                        try {
-                            //Attempt to deserialize and return ApiResult
-                            restApiResult.setSuccessResult(deserialize(s.getBytes(StandardCharsets.UTF_8), (Class<T>) (objectToPost.getClass())));
-                            return Mono.empty();
-                        } catch (Exception e) {
-                            populateErrorDetails(restApiResult, e);
-                            e.printStackTrace();
-                            return Mono.error(e);
-                        }
-                    })
-                    .log(null, Level.INFO, SignalType.ON_NEXT) // log when data comes through pipeline
-                    .block();
-        } catch (Exception e) {
-            e.printStackTrace();
-            populateErrorDetails(restApiResult, e);
-            return restApiResult;
-        }
-        return restApiResult;
+        return await(postResource(url, objectToPost), null);
     }
 
     /**
      * This Method should be used to make an HTTP PATCH call and shall deserialize the result to whatever class passed in <T>
      * <p>
-     * Note: This is for patching a resource and upon success, the deserialized result will be available in APIResult.getSuccessResult()
+     * Note: This blocks the calling thread until the response is deserialized, prefer {@link #patchResource(String, Object)} on event loops
      *
-     * @param url           url of resources to patch
-     * @param objectToPatch Type to deserialize list to
+     * @param url           url of resource to patch
+     * @param objectToPatch object to serialize as request body
      * @return APIResult with deserialized value of patched resource
      */
-    @SuppressWarnings("unchecked")
     public <T> RestApiResult<T> patchResourceAsync(String url, T objectToPatch) {
-        RestApiResult<T> restApiResult = new RestApiResult<>();
-        try {
-            String postData = mapper.writeValueAsString(objectToPatch);
-            ByteBuf postBodyByteBuf = Unpooled.copiedBuffer(postData.getBytes());
-            httpClient.patch()
-                    .uri(url)
-                    .send(Mono.just(postBodyByteBuf))
-                    .responseSingle((httpClientResponse, byteBufMono) -> {
-                        //Populate Request metadata
-                        restApiResult.setRequestPath(httpClientResponse.fullPath());
-                        restApiResult.setHeaders(httpClientResponse.requestHeaders());
-                        restApiResult.setHttpMethod(httpClientResponse.method());
-                        restApiResult.setClientResponse(httpClientResponse);
-
-                        //Determine if success
-                        HttpResponseStatus responseStatus = httpClientResponse.status();
-
-                        //If success, emit response as string to reactive flow
-                        if (responseStatus.code() >= 200 && responseStatus.code() < 300) {
-                            restApiResult.setSuccess(true);
-                            restApiResult.setHttpStatusCode(responseStatus.code());
-                            restApiResult.setHttpResponseStatus(responseStatus);
-                            return byteBufMono.asString();
-                        }
-
-                        //If error status code, populate ErrorResponse with appropriate HTTP level details and emit empty string
-                        populateHttpErrorDetails(restApiResult, responseStatus, httpClientResponse);
-                        return Mono.error(new Exception("Received Error Status Code"));
-                    })
-                    .log(null, Level.INFO, SignalType.ON_NEXT) // log when data comes through pipeline
-                    .flatMap(s -> {
-                        try {
-                            //Attempt to deserialize and return ApiResult
-                            restApiResult.setSuccessResult(deserialize(s.getBytes(StandardCharsets.UTF_8), (Class<T>) (objectToPatch.getClass())));
-                            return Mono.just(restApiResult);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            populateErrorDetails(restApiResult, e);
-                            return Mono.error(e);
-                        }
-                    }).block();
-        } catch (Exception e) {
-            e.printStackTrace();
-            populateErrorDetails(restApiResult, e);
-            return restApiResult;
-        }
-        return restApiResult;
-
+        return await(patchResource(url, objectToPatch), null);
     }
 
     /**
      * This Method should be used to make an HTTP PUT call and shall deserialize the result to whatever class passed in <T>
+     * <p>
+     * Note: This blocks the calling thread until the response is deserialized, prefer {@link #putResource(String, Object)} on event loops
      *
-     * @param url         url of resources to PUT
-     * @param objectToPut Type to deserialize list to
+     * @param url         url of resource to PUT
+     * @param objectToPut object to serialize as request body
      * @return APIResult with deserialized value of response
      */
-    @SuppressWarnings("unchecked")
     public <T> RestApiResult<T> putResourceAsync(String url, T objectToPut) {
-        RestApiResult<T> restApiResult = new RestApiResult<>();
-        try {
-            String postData = mapper.writeValueAsString(objectToPut);
-            final Publisher<? extends ByteBuf> postBody = ByteBufFlux.fromString(Mono.just(postData));
-
-            ByteBuf postBodyByteBuf = Unpooled.copiedBuffer(postData.getBytes());
-            httpClient.put()
-                    .uri(url)
-                    .send(postBody)
-                    .responseSingle((httpClientResponse, byteBufMono) -> {
-                        //Populate Request metadata
-                        restApiResult.setRequestPath(httpClientResponse.fullPath());
-                        restApiResult.setHeaders(httpClientResponse.requestHeaders());
-                        restApiResult.setHttpMethod(httpClientResponse.method());
-                        restApiResult.setClientResponse(httpClientResponse);
-
-                        //Determine if success
-                        HttpResponseStatus responseStatus = httpClientResponse.status();
-
-                        //If success, emit response as string to reactive flow
-                        if (responseStatus.code() >= 200 && responseStatus.code() < 300) {
-                            restApiResult.setSuccess(true);
-                            restApiResult.setHttpStatusCode(responseStatus.code());
-                            restApiResult.setHttpResponseStatus(responseStatus);
-                            return byteBufMono.asString();
-                        }
-
-                        //If error status code, throw error
-                        //If error status code, populate ErrorResponse with appropriate HTTP level details and emit empty string
-                        populateHttpErrorDetails(restApiResult, responseStatus, httpClientResponse);
-                        return Mono.error(new Exception("Received Error Status Code"));
-                    })
-                    .flatMap(s -> {
-                        try {
-                            //Attempt to deserialize and return ApiResult
-                            restApiResult.setSuccessResult(deserialize(s.getBytes(StandardCharsets.UTF_8), (Class<T>) (objectToPut.getClass())));
-                            return Mono.just(restApiResult);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            populateErrorDetails(restApiResult, e);
-                            return Mono.error(e);
-                        }
-                    })
-                    .log(null, Level.INFO, SignalType.ON_NEXT) // log when data comes through pipeline
-                    .block();
-        } catch (Exception e) {
-            e.printStackTrace();
-            populateErrorDetails(restApiResult, e);
-            return restApiResult;
-        }
-        return restApiResult;
-
+        return await(putResource(url, objectToPut), null);
     }
 
     /**
      * This Method should be used to make an HTTP DELETE call and shall return an empty successResult <T>
      * <p>
+     * Note: This blocks the calling thread until the response is received, prefer {@link #deleteResource(String)} on event loops
      *
-     * @param url url of resources to delete
+     * @param url url of resource to delete
      * @return APIResult with empty successResult
      */
-    @SuppressWarnings("unchecked")
     public <T> RestApiResult<T> deleteResourceAsync(String url) {
-        RestApiResult<T> restApiResult = new RestApiResult<>();
-        try {
-            httpClient.delete()
-                    .uri(url)
-                    .responseSingle((httpClientResponse, byteBufMono) -> {
-                        //Populate Request metadata
-                        restApiResult.setRequestPath(httpClientResponse.fullPath());
-                        restApiResult.setHeaders(httpClientResponse.requestHeaders());
-                        restApiResult.setHttpMethod(httpClientResponse.method());
-                        restApiResult.setClientResponse(httpClientResponse);
-
-                        //Determine if success
+        return await(deleteResource(url), null);
+    }
+
+    /**
+     * @param url       url the caller asked for, picks the codec
+     * @param targetUrl absolute url the request is sent to, the url itself unless load balanced
+     */
+    private <T> Flux<T> stream(String url, String targetUrl, Class<T> returnType) {
+        if (requestLimiter == null) {
+            return openStream(url, targetUrl, returnType);
+        }
+        return requestLimiter.stream(hostOf(targetUrl), () -> openStream(url, targetUrl, returnType));
+    }
+
+    /**
+     * @param url       url the caller asked for, picks the codec
+     * @param targetUrl absolute url the request is sent to
+     */
+    private <T> Flux<T> openStream(String url, String targetUrl, Class<T> returnType) {
+        return Flux.defer(() -> {
+            CallTimer callTimer = clientMetrics != ClientMetrics.NOOP ? new CallTimer(clientMetrics, hostOf(targetUrl), HttpMethod.GET.name()) : null;
+            Codec requestCodec = contentNegotiation.requestCodec(url);
+            String accept = requestCodec == jsonCodec ? STREAM_ACCEPT : requestCodec.getMediaType() + ", " + STREAM_ACCEPT;
+            Flux<T> elements = clientFor(targetUrl).headers(h -> h.set(HttpHeaderNames.ACCEPT, accept))
+                    .get()
+                    .uri(targetUrl)
+                    .response((httpClientResponse, body) -> {
                         HttpResponseStatus responseStatus = httpClientResponse.status();
+                        if (callTimer != null) {
+                            callTimer.onHeaders(responseStatus.code());
+                        }
 
-                        //If success, emit response as string to reactive flow
-                        if (responseStatus.code() == 200 || responseStatus.code() == 204) {
-                            restApiResult.setSuccess(true);
-                            restApiResult.setHttpStatusCode(responseStatus.code());
-                            restApiResult.setHttpResponseStatus(responseStatus);
-                            return byteBufMono.asString();
+                        //If success, decode body chunks into elements as they arrive
+                        if (is2xx(responseStatus.code())) {
+                            String contentType = httpClientResponse.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+                            Flux<ByteBuf> timedBody = callTimer != null ? callTimer.timed(body) : body;
+                            return isNdJson(contentType)
+                                    ? jsonCodec.<T>decodeValues(timedBody, returnType)
+                                    : contentNegotiation.responseCodec(url, contentType).<T>decode(timedBody, returnType);
                         }
 
-                        //If error status code, populate ErrorResponse with appropriate HTTP level details and emit empty string
-                        populateHttpErrorDetails(restApiResult, responseStatus, httpClientResponse);
-                        return Mono.error(new Exception("Received Error Status Code"));
-                    })
-                    .flatMap(s -> {
-                        try {
-                            //Attempt to deserialize and return ApiResult
-                            restApiResult.setSuccessResult(null);
-                            return Mono.just(restApiResult);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            populateErrorDetails(restApiResult, e);
-                            return Mono.error(e);
+                        //If error status code, signal an ErrorResponse with appropriate HTTP level details
+                        return errorResponse(responseStatus, httpClientResponse.responseHeaders(), body)
+                                .flatMapMany(errorResponse -> Flux.error(new RestApiException(errorResponse)));
+                    });
+            //A cancelled stream is not recorded, like a cancelled call
+            return callTimer != null ? elements.doOnTerminate(callTimer::onTerminate) : elements;
+        });
+    }
+
+    private <T> Mono<RestApiResult<List<T>>> getList(String url, Class<T> returnType) {
+        return get(url, jacksonCache.listType(returnType), (metadata, body) -> codecFor(url, metadata).<T>decodeToList(body, returnType));
+    }
+
+    /**
+     * GET through the request coalescing and the response cache, when configured. Identical concurrent GETs share one
+     * execution, and within it fresh cache entries are returned without a request, stale entries are revalidated with a
+     * conditional request and cacheable 200 responses are stored.
+     *
+     * @param url         url of resource to retrieve
+     * @param cacheType   type the body is deserialized to, part of the cache key
+     * @param bodyHandler decodes the streamed response body
+     * @return Mono emitting the APIResult
+     */
+    private <T> Mono<RestApiResult<T>> get(String url, Type cacheType, BodyHandler<T> bodyHandler) {
+        if (singleFlight == null) {
+            return cachedGet(url, cacheType, bodyHandler);
+        }
+        //Per client request headers are fixed, so url and target type identify identical GETs
+        return singleFlight.execute(new ResponseCache.Key(url, cacheType), () -> cachedGet(url, cacheType, bodyHandler));
+    }
+
+    private <T> Mono<RestApiResult<T>> cachedGet(String url, Type cacheType, BodyHandler<T> bodyHandler) {
+        if (responseCache == null) {
+            return resilient(url, HttpMethod.GET, () -> exchange(url, HttpMethod.GET, targetUrl -> clientFor(targetUrl).get().uri(targetUrl), RestClientManager::is2xx, bodyHandler));
+        }
+        return Mono.defer(() -> {
+            ResponseCache.Key key = new ResponseCache.Key(url, cacheType);
+            long nowMillis = System.currentTimeMillis();
+            CachedResponse cachedResponse = responseCache.get(key, nowMillis);
+            if (cachedResponse != null && cachedResponse.isFresh(nowMillis)) {
+                return Mono.just(cachedResponse.<T>toResult());
+            }
+
+            //A stale entry is revalidated, 304 Not Modified then counts as success and returns the cached result
+            return resilient(url, HttpMethod.GET, () -> Mono.defer(() -> {
+                AtomicLong bodyBytes = new AtomicLong();
+                return exchange(url, HttpMethod.GET, targetUrl -> cachedResponse == null
+                                ? clientFor(targetUrl).get().uri(targetUrl)
+                                : clientFor(targetUrl).headers(cachedResponse::addValidators).get().uri(targetUrl),
+                        code -> is2xx(code) || (cachedResponse != null && code == HttpResponseStatus.NOT_MODIFIED.code()),
+                        (metadata, body) -> metadata.getHttpResponseStatus().code() == HttpResponseStatus.NOT_MODIFIED.code()
+                                ? body.then(Mono.<T>empty())
+                                : bodyHandler.handle(metadata, body.doOnNext(chunk -> bodyBytes.addAndGet(chunk.readableBytes()))))
+                        .map(restApiResult -> {
+                            long completedMillis = System.currentTimeMillis();
+                            if (restApiResult.isSuccess() && restApiResult.getHttpStatusCode() == HttpResponseStatus.NOT_MODIFIED.code()) {
+                                return responseCache.revalidate(key, cachedResponse, restApiResult.getMetadata().getResponseHeaders(), completedMillis).<T>toResult();
+                            }
+                            CachedResponse storable = CachedResponse.of(restApiResult, bodyBytes.get(), completedMillis);
+                            if (storable != null) {
+                                responseCache.put(key, storable);
+                            } else if (cachedResponse != null && restApiResult.isSuccess()) {
+                                //The entry was replaced by a response that must not be stored, e.g. no-store
+                                responseCache.invalidate(key);
+                            }
+                            return restApiResult;
+                        });
+            }));
+        });
+    }
+
+    /**
+     * Runs the call through the resilience pipeline when one is configured
+     *
+     * @param url    url of the call, its host:port selects the circuit breaker and latency statistics
+     * @param method method of the call, decides whether it is safe to retry and hedge
+     * @param call   supplies one attempt of the call
+     * @return Mono emitting the APIResult of the call
+     */
+    private <T> Mono<RestApiResult<T>> resilient(String url, HttpMethod method, Supplier<Mono<RestApiResult<T>>> call) {
+        if (resiliencePipeline == null) {
+            return call.get();
+        }
+        boolean idempotent = method == HttpMethod.GET || method == HttpMethod.PUT || method == HttpMethod.DELETE;
+        return resiliencePipeline.execute(hostOf(url), idempotent, call);
+    }
+
+    /**
+     * Shared request pipeline for every HTTP method. The request is only prepared once subscribed, an immutable APIResult
+     * is built per subscription and any failure is folded into its ErrorResponse instead of an error signal.
+     *
+     * A lb://service url is resolved to one of the service's endpoints per call, so every retry or hedge is routed anew.
+     *
+     * @param url           url of the call
+     * @param method        method of the call, tags the metrics
+     * @param requestSpec   prepares the request to the absolute url, may fail e.g. while serializing the body
+     * @param successStatus decides which status codes are treated as success
+     * @param bodyHandler   decodes the streamed response body of a successful call
+     * @return Mono emitting the APIResult
+     */
+    private <T> Mono<RestApiResult<T>> exchange(String url, HttpMethod method, RequestSpec requestSpec, IntPredicate successStatus, BodyHandler<T> bodyHandler) {
+        if (loadBalancer != null && LoadBalancer.isLoadBalanced(url)) {
+            return loadBalancer.execute(url, targetUrl -> dispatch(targetUrl, method, requestSpec, successStatus, bodyHandler));
+        }
+        return dispatch(url, method, requestSpec, successStatus, bodyHandler);
+    }
+
+    /**
+     * @param targetUrl absolute url the request is sent to, its host tags the metrics and picks the limits
+     */
+    private <T> Mono<RestApiResult<T>> dispatch(String targetUrl, HttpMethod method, RequestSpec requestSpec, IntPredicate successStatus, BodyHandler<T> bodyHandler) {
+        if (requestLimiter == null) {
+            return execute(targetUrl, method, requestSpec, successStatus, bodyHandler);
+        }
+        return requestLimiter.execute(hostOf(targetUrl), () -> execute(targetUrl, method, requestSpec, successStatus, bodyHandler));
+    }
+
+    private <T> Mono<RestApiResult<T>> execute(String targetUrl, HttpMethod method, RequestSpec requestSpec, IntPredicate successStatus, BodyHandler<T> bodyHandler) {
+        return Mono.defer(() -> {
+            CallTimer callTimer = clientMetrics != ClientMetrics.NOOP ? new CallTimer(clientMetrics, hostOf(targetUrl), method.name()) : null;
+            HttpClient.ResponseReceiver<?> request;
+            try {
+                request = requestSpec.prepare(targetUrl);
+            } catch (Exception e) {
+                return Mono.just(RestApiResult.<T>failure(ErrorResponse.ofException(e), null));
+            }
+
+            Mono<RestApiResult<T>> resultMono = request
+                    .response((httpClientResponse, body) -> {
+                        //Snapshot the metadata, the response itself is bound to the connection and must not outlive the exchange
+                        ResponseMetadata metadata = ResponseMetadata.of(httpClientResponse);
+                        if (callTimer != null) {
+                            callTimer.onHeaders(metadata.getHttpResponseStatus().code());
                         }
+                        HttpResponseStatus responseStatus = metadata.getHttpResponseStatus();
+
+                        //If success, decode body chunks as they arrive, an empty body leaves the successResult null
+                        if (successStatus.test(responseStatus.code())) {
+                            return bodyHandler.handle(metadata, callTimer != null ? callTimer.timed(body) : body)
+                                    .map(successResult -> RestApiResult.success(successResult, metadata))
+                                    .switchIfEmpty(Mono.fromSupplier(() -> RestApiResult.success(null, metadata)))
+                                    .onErrorResume(e -> Mono.just(RestApiResult.failure(ErrorResponse.ofException(e), metadata)));
+                        }
+
+                        //If error status code, populate ErrorResponse with appropriate HTTP level details
+                        return errorResponse(responseStatus, metadata.getResponseHeaders(), body)
+                                .map(errorResponse -> RestApiResult.<T>failure(errorResponse, metadata));
                     })
-                    .log(null, Level.INFO, SignalType.ON_NEXT) // log when data comes through pipeline
-                    .block();
-        } catch (Exception e) {
-            populateErrorDetails(restApiResult, e);
-            e.printStackTrace();
-            return restApiResult;
+                    .singleOrEmpty();
+            if (logSignals) {
+                resultMono = resultMono.log(null, Level.INFO, SignalType.ON_NEXT); // log when data comes through pipeline
+            }
+            //Failures before a response was received
+            resultMono = resultMono.onErrorResume(e -> Mono.just(RestApiResult.failure(ErrorResponse.ofException(e), null)));
+            return callTimer != null ? resultMono.doOnNext(result -> callTimer.onComplete(result.getHttpStatusCode())) : resultMono;
+        });
+    }
+
+    /**
+     * Serializes the body into a pooled direct buffer of the connection's allocator once the request is written, so
+     * nothing is allocated for requests that never get a connection and the buffer is released by Netty once flushed
+     */
+    private HttpClient.ResponseReceiver<?> send(HttpClient.RequestSender requestSender, String url, Object requestBody) {
+        Codec requestCodec = contentNegotiation.requestCodec(url);
+        return requestSender.send((httpClientRequest, outbound) -> {
+            ByteBuf requestBodyByteBuf;
+            try {
+                requestBodyByteBuf = requestCodec.encode(outbound.alloc(), requestBody);
+                if (requestCompressionThreshold > 0 && requestBodyByteBuf.readableBytes() >= requestCompressionThreshold) {
+                    requestBodyByteBuf = GzipCompressor.compress(outbound.alloc(), requestBodyByteBuf);
+                    httpClientRequest.header(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+                }
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+            httpClientRequest.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(requestBodyByteBuf.readableBytes()));
+            return outbound.send(Mono.just(requestBodyByteBuf));
+        });
+    }
+
+    /**
+     * @return the client variant for the host of the url
+     */
+    private HttpClient clientFor(String url) {
+        if (hostClients.isEmpty()) {
+            return httpClient;
         }
-        return restApiResult;
+        return hostClients.getOrDefault(hostOf(url), httpClient);
     }
 
     /**
-     * This method allows for the asynchronous deserialization of a byte[] to whatever Type provided
-     *
-     * @param jsonBytes  byte array to feed into async parser
-     * @param returnType type to deserialize
-     * @return deserialized value
-     * @throws Exception throws exception if deserialization fails
+     * @return codec decoding the response of a call to the url
      */
-    private static <T> T deserialize(byte[] jsonBytes, Class<T> returnType) throws Exception {
-        //Get Nonblocking Parser
-        JsonParser asyncParser = mapper.getFactory().createNonBlockingByteArrayParser();
+    private Codec codecFor(String url, ResponseMetadata metadata) {
+        return contentNegotiation.responseCodec(url, metadata.getResponseHeaders().get(HttpHeaderNames.CONTENT_TYPE));
+    }
 
-        //Feed response bytes into nonblocking feeder
-        ByteArrayFeeder feeder = (ByteArrayFeeder) asyncParser.getNonBlockingInputFeeder();
-        feeder.feedInput(jsonBytes, 0, jsonBytes.length);
-        feeder.endOfInput();
+    private static HttpClient withCodecHeaders(HttpClient client, Codec codec) {
+        String accept = ContentNegotiation.accept(codec);
+        return client.headers(h -> {
+            h.set(HttpHeaderNames.CONTENT_TYPE, codec.getMediaType());
+            h.set(HttpHeaderNames.ACCEPT, accept);
+        });
+    }
 
-        //Deserialize value
-        return mapper.readValue(asyncParser, returnType);
+    private static ConnectionProvider buildConnectionProvider(Config config, ReactorNettyMetrics reactorNettyMetrics) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(config.getName());
+        config.getPool().applyTo(builder);
+        if (reactorNettyMetrics != null) {
+            builder.metrics(true, () -> reactorNettyMetrics);
+        }
+        config.getHostPools().forEach((hostAndPort, poolSettings) ->
+                builder.forRemoteHost(toRemoteAddress(hostAndPort), spec -> {
+                    poolSettings.applyTo(spec);
+                    if (reactorNettyMetrics != null) {
+                        spec.metrics(true, () -> reactorNettyMetrics);
+                    }
+                }));
+        return builder.build();
     }
 
     /**
-     * This method allows for the asynchronous deserialization of a byte[] to a list of whatever Type provided
+     * Pool keys are the unresolved address of the request URI, so host specific pools are keyed the same way
+     */
+    private static InetSocketAddress toRemoteAddress(String hostAndPort) {
+        int separator = hostAndPort.lastIndexOf(':');
+        if (separator <= 0 || separator == hostAndPort.length() - 1) {
+            throw new IllegalArgumentException("Expected host:port but got " + hostAndPort);
+        }
+        return InetSocketAddress.createUnresolved(hostAndPort.substring(0, separator), Integer.parseInt(hostAndPort.substring(separator + 1)));
+    }
+
+    /**
+     * Blocks the calling thread until the result is available. Reactor parks the thread while waiting, which on a virtual
+     * thread unmounts it from its carrier, so this is also the wait of {@link BlockingRestClient}
      *
-     * @param jsonBytes  byte array to feed into async parser
-     * @param returnType type to deserialize
-     * @return list of deserialized values
-     * @throws Exception throws exception if deserialization fails
+     * @param timeout longest wait, unlimited if null
+     * @return the result, or a failure if waiting failed, timed out or was attempted on an event loop
      */
-    private static <T> List<T> deserializeToList(byte[] jsonBytes, Class<T> returnType) throws Exception {
-        //Get Nonblocking Parser
-        JsonParser asyncParser = mapper.getFactory().createNonBlockingByteArrayParser();
+    static <T> RestApiResult<T> await(Mono<? extends RestApiResult<T>> resultMono, Duration timeout) {
+        try {
+            return timeout != null ? resultMono.block(timeout) : resultMono.block();
+        } catch (Exception e) {
+            return RestApiResult.failure(ErrorResponse.ofException(e), null);
+        }
+    }
 
-        //Feed response bytes into nonblocking feeder
-        ByteArrayFeeder feeder = ((ByteArrayFeeder) asyncParser.getNonBlockingInputFeeder());
-        feeder.feedInput(jsonBytes, 0, jsonBytes.length);
-        feeder.endOfInput();
+    /**
+     * Drains the body of an error status response, so the exchange completes and the connection is released to the pool
+     * instead of being closed, keeping up to MAX_ERROR_BODY_BYTES of it for the ErrorResponse
+     */
+    private static Mono<ErrorResponse> errorResponse(HttpResponseStatus responseStatus, HttpHeaders responseHeaders, ByteBufFlux body) {
+        Charset charset = HttpUtil.getCharset(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE), StandardCharsets.UTF_8);
+        return body.collect(ByteArrayOutputStream::new, (captured, chunk) -> {
+                    int length = Math.min(MAX_ERROR_BODY_BYTES - captured.size(), chunk.readableBytes());
+                    if (length > 0) {
+                        byte[] bytes = new byte[length];
+                        chunk.getBytes(chunk.readerIndex(), bytes);
+                        captured.write(bytes, 0, length);
+                    }
+                })
+                .map(captured -> ErrorResponse.ofStatus(responseStatus, responseHeaders, ERROR_STATUS_MESSAGE,
+                        captured.size() > 0 ? captured.toString(charset) : null))
+                //The status is what matters, a body failing midway does not turn it into a transport failure
+                .onErrorResume(e -> Mono.just(ErrorResponse.ofStatus(responseStatus, responseHeaders, ERROR_STATUS_MESSAGE)));
+    }
 
-        //Deserialize values to List
-        CollectionType type = mapper.getTypeFactory().constructCollectionType(List.class, returnType);
-        return mapper.readValue(jsonBytes, type);
+    /**
+     * Blackbird is an optional dependency, loaded reflectively so the client works without it unless bytecodeAccessors is
+     * enabled
+     */
+    private static Module blackbirdModule() {
+        try {
+            return (Module) Class.forName(BLACKBIRD_MODULE_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("bytecodeAccessors requires com.fasterxml.jackson.module:jackson-module-blackbird on the classpath", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + BLACKBIRD_MODULE_CLASS, e);
+        }
     }
 
-    private static <T> void populateHttpErrorDetails(RestApiResult<T> restApiResult, HttpResponseStatus responseStatus, HttpClientResponse httpClientResponse) {
-        ErrorResponse errorResponse = restApiResult.getErrorResponse();
-        if (errorResponse == null) {
-            errorResponse = new ErrorResponse();
+    private static boolean isNdJson(String contentType) {
+        if (contentType == null) {
+            return false;
         }
-        errorResponse.setHttpStatus(responseStatus);
-        errorResponse.setClientResponse(httpClientResponse);
+        String mediaType = contentType.toLowerCase(Locale.ROOT);
+        return mediaType.startsWith(APPLICATION_NDJSON) || mediaType.startsWith(APPLICATION_STREAM_JSON);
+    }
 
-        restApiResult.setSuccess(false);
+    /**
+     * @return host[:port] of an absolute url, without parsing the full URI on the request path
+     */
+    static String hostOf(String url) {
+        int schemeEnd = url.indexOf("://");
+        int start = schemeEnd < 0 ? 0 : schemeEnd + 3;
+        int end = start;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        int userInfoEnd = url.lastIndexOf('@', end - 1);
+        return url.substring(Math.max(start, userInfoEnd + 1), end);
+    }
 
+    private static boolean is2xx(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
     }
 
-    private static <T> void populateErrorDetails(RestApiResult<T> restApiResult, Exception e) {
-        ErrorResponse errorResponse = restApiResult.getErrorResponse();
-        if (errorResponse == null) {
-            errorResponse = new ErrorResponse();
-        }
+    /**
+     * Settings of a client owning its connection pool and event loops, see {@link #RestClientManager(Config)}
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Config {
+
+        /**
+         * Name of the connection pool and prefix of the event loop threads
+         */
+        @Builder.Default
+        String name = "rest-client";
+
+        /**
+         * Pool settings for every remote host without a host specific entry
+         */
+        @Builder.Default
+        PoolSettings pool = PoolSettings.builder().build();
+
+        /**
+         * Pool settings per remote host, keyed by host:port as it appears in request urls
+         */
+        @Singular
+        Map<String, PoolSettings> hostPools;
+
+        /**
+         * HTTP protocols for every remote host without a host specific entry, HTTP/1.1 by default
+         */
+        @Builder.Default
+        ProtocolSettings protocol = ProtocolSettings.http11();
+
+        /**
+         * HTTP protocols per remote host, keyed by host[:port] exactly as it appears in request urls
+         */
+        @Singular
+        Map<String, ProtocolSettings> hostProtocols;
+
+        /**
+         * Time allowed to establish a connection, netty's 30 seconds if unset
+         */
+        Duration connectTimeout;
+
+        /**
+         * Time allowed between sending the request and receiving the response, unlimited if unset
+         */
+        Duration responseTimeout;
+
+        /**
+         * Number of event loop threads owned by this client, 0 to share reactor-netty's global event loops
+         */
+        int ioWorkerCount;
+
+        /**
+         * Use the native epoll transport when netty-transport-native-epoll is on the classpath, NIO otherwise
+         */
+        boolean nativeTransport;
+
+        /**
+         * Endpoints of logical services by service name, addressed as lb://service/path in request urls
+         */
+        @Singular
+        Map<String, EndpointSource> services;
+
+        /**
+         * Routing and ejection settings for the services
+         */
+        @Builder.Default
+        LoadBalancerPolicy loadBalancer = LoadBalancerPolicy.builder().build();
+
+        /**
+         * Per host rate and adaptive concurrency limits, applied to every attempt and every stream before it is sent,
+         * disabled if unset. A stream holds its concurrency permit until it terminates or is cancelled
+         */
+        LimitPolicy limits;
+
+        /**
+         * Mapper used to serialize request and deserialize response bodies as JSON, a shared lenient mapper if unset
+         */
+        ObjectMapper objectMapper;
+
+        /**
+         * Codec of request bodies and preferred in Accept for every remote host without a host specific entry, JSON
+         * with the objectMapper if unset. Responses are decoded by the known codec matching their Content-Type
+         */
+        Codec codec;
+
+        /**
+         * Codecs per remote host, keyed by host[:port] exactly as it appears in request urls, or by service name for
+         * lb:// urls
+         */
+        @Singular
+        Map<String, Codec> hostCodecs;
+
+        /**
+         * Register Jackson Blackbird on a copy of the mapper, replacing reflection with generated accessors for faster
+         * binding of hot DTOs at the cost of a slower first use per type. Requires the optional
+         * com.fasterxml.jackson.module:jackson-module-blackbird dependency
+         */
+        boolean bytecodeAccessors;
+
+        /**
+         * Cache in front of getResource/getResources honouring Cache-Control, Expires, ETag and Last-Modified, disabled
+         * if unset. May be shared by several clients
+         */
+        ResponseCache responseCache;
+
+        /**
+         * Let concurrent identical getResource/getResources calls share one in-flight request and one deserialized
+         * result, which callers must then treat as read-only. The request carries the trace context of the caller that
+         * sent it
+         */
+        boolean coalesceGets;
+
+        /**
+         * Retries, hedging and per host circuit breakers around every call except streamResources, disabled if unset
+         */
+        ResiliencePolicy resilience;
+
+        /**
+         * Receives latency, phase timing, byte and pool measurements, see MicrometerClientMetrics. Nothing is measured
+         * if unset. Overrides the Micrometer pool metrics of PoolSettings
+         */
+        ClientMetrics metrics;
+
+        /**
+         * Adds trace context headers taken from the Reactor Context of each call, none if unset
+         */
+        TracePropagator tracePropagator;
+
+        /**
+         * Advertise gzip, deflate and, when brotli4j is on the classpath, br in Accept-Encoding and inflate compressed
+         * responses as they stream in
+         */
+        boolean compressResponses;
+
+        /**
+         * Gzip POST, PUT and PATCH bodies of at least this many bytes and send them with Content-Encoding: gzip, 0 to
+         * never compress. Only for servers known to accept compressed request bodies
+         */
+        int requestCompressionThreshold;
+
+        /**
+         * Log every emitted result at INFO, costly under load and off by default
+         */
+        boolean logSignals;
+    }
 
-        errorResponse.setErrorDescription(e.getMessage());
-        errorResponse.setException(e);
-        restApiResult.setErrorResponse(errorResponse);
-        restApiResult.setSuccess(false);
+    /**
+     * Prepares a request to the absolute target url, allowed to throw so serialization failures end up in the APIResult
+     */
+    @FunctionalInterface
+    private interface RequestSpec {
+        HttpClient.ResponseReceiver<?> prepare(String targetUrl) throws Exception;
+    }
+
+    /**
+     * Decodes the body of a successful response into the successResult, empty for an empty body
+     */
+    @FunctionalInterface
+    private interface BodyHandler<T> {
+        Mono<T> handle(ResponseMetadata metadata, Flux<ByteBuf> body);
     }
 }
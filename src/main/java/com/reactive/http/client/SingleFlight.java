@@ -0,0 +1,119 @@
+package com.reactive.http.client;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into a single execution whose outcome is fanned out to every caller.
+ * <p>
+ * A call is in flight from its first subscription until it terminates. Callers arriving meanwhile join it instead of
+ * starting their own, and all of them observe the same value or error: the outcome is held in a {@link Sinks.One}, so a
+ * caller joining just as the execution terminates still receives it. A caller cancelling only detaches itself, the
+ * shared execution is cancelled once its last caller has cancelled. Callers arriving after termination start a new
+ * execution, nothing is cached.
+ * <p>
+ * The execution runs with the Reactor Context of the caller that started it, so e.g. its trace headers are sent, and
+ * callers joining it are served under that caller's context rather than their own.
+ *
+ * @param <K> key identifying identical calls, calls with equal keys must produce values of the same type
+ */
+class SingleFlight<K> {
+
+    private final ConcurrentMap<K, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key  key of the call
+     * @param call supplies the call, only invoked if no call with the same key is in flight
+     * @return Mono of the value of the shared call
+     */
+    @SuppressWarnings("unchecked")
+    <V> Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.deferContextual(context -> {
+            while (true) {
+                Flight<V> flight = new Flight<>(key);
+                Flight<V> inFlightCall = (Flight<V>) inFlight.putIfAbsent(key, flight);
+                if (inFlightCall == null) {
+                    flight.join();
+                    flight.start(call, context);
+                    return flight.caller();
+                }
+                //A flight cancelled by its last caller is on its way out of the map, it is not joined
+                if (inFlightCall.join()) {
+                    return inFlightCall.caller();
+                }
+                inFlight.remove(key, inFlightCall);
+            }
+        });
+    }
+
+    /**
+     * One shared execution and the callers attached to it
+     */
+    private final class Flight<V> {
+        private final K key;
+        private final Sinks.One<V> outcome = Sinks.one();
+        //A lock rather than a monitor, so a contended join never pins a virtual thread to its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private int callers;
+        private boolean cancelled;
+        private volatile Disposable upstream;
+
+        private Flight(K key) {
+            this.key = key;
+        }
+
+        /**
+         * Subscribes to the call once, the key is released as soon as the call terminates or is cancelled
+         *
+         * @param context context of the caller starting the flight, the call is subscribed outside of its chain
+         */
+        private void start(Supplier<Mono<V>> call, ContextView context) {
+            upstream = Mono.defer(call)
+                    .doFinally(signalType -> inFlight.remove(key, this))
+                    .contextWrite(context)
+                    .subscribe(outcome::tryEmitValue, outcome::tryEmitError, outcome::tryEmitEmpty);
+        }
+
+        /**
+         * @return false if the last caller already cancelled the execution
+         */
+        private boolean join() {
+            lock.lock();
+            try {
+                if (cancelled) {
+                    return false;
+                }
+                callers++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Mono<V> caller() {
+            return outcome.asMono().doOnCancel(this::leave);
+        }
+
+        private void leave() {
+            lock.lock();
+            try {
+                if (--callers > 0) {
+                    return;
+                }
+                cancelled = true;
+            } finally {
+                lock.unlock();
+            }
+            //The caller starting the flight holds it until the upstream is subscribed, so it is never null here
+            upstream.dispose();
+            inFlight.remove(key, this);
+        }
+    }
+}
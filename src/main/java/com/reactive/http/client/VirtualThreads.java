@@ -0,0 +1,37 @@
+package com.reactive.http.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caller threads for {@link BlockingRestClient}. This is the Java 11 version, falling back to platform threads; the
+ * multi-release jar carries a Java 21 version under META-INF/versions/21 that uses virtual threads.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return false;
+    }
+
+    static boolean isVirtual(Thread thread) {
+        return false;
+    }
+
+    /**
+     * @return an unbounded executor starting a daemon platform thread per concurrently running task, reusing idle ones
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+}
@@ -0,0 +1,30 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * CBOR {@link Codec} (RFC 8949). Jackson has no non-blocking CBOR parser, so bodies are aggregated before they are
+ * decoded. Needs the optional jackson-dataformat-cbor dependency.
+ */
+public class CborCodec extends JacksonCodec {
+
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    /**
+     * Creates a codec whose mapper, like the client's default JSON mapper, ignores unknown properties
+     */
+    public CborCodec() {
+        this(CBORMapper.builder()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .build());
+    }
+
+    /**
+     * @param cborMapper mapper built on a {@code CBORFactory}
+     */
+    public CborCodec(ObjectMapper cborMapper) {
+        super(cborMapper, MEDIA_TYPE);
+    }
+}
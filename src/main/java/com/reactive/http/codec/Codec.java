@@ -0,0 +1,80 @@
+package com.reactive.http.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Serializes request bodies and deserializes response bodies of one media type, see
+ * {@code RestClientManager.Config#codec} and {@code RestClientManager.Config#hostCodecs}.
+ * <p>
+ * Decoding gets the body as the {@link ByteBuf} chunks received from Netty, each released by the caller once emitted.
+ * Implementations should decode incrementally, holding on to as little of the body as the format allows. Codecs are
+ * shared by all calls of a client and must be thread safe.
+ */
+public interface Codec {
+
+    /**
+     * @return media type sent as Content-Type of request bodies and offered in Accept, e.g. application/json
+     */
+    String getMediaType();
+
+    /**
+     * @param contentType Content-Type of a response, possibly with parameters
+     * @return true if this codec can decode bodies of the content type
+     */
+    default boolean supports(String contentType) {
+        String mediaType = getMediaType();
+        if (!contentType.regionMatches(true, 0, mediaType, 0, mediaType.length())) {
+            return false;
+        }
+        return contentType.length() == mediaType.length() || contentType.charAt(mediaType.length()) == ';'
+                || Character.isWhitespace(contentType.charAt(mediaType.length()));
+    }
+
+    /**
+     * @param allocator allocator of the channel the body is written to
+     * @param value     value to serialize
+     * @return buffer holding the serialized value, owned by the caller
+     * @throws IOException if the value cannot be serialized, no buffer is leaked in that case
+     */
+    ByteBuf encode(ByteBufAllocator allocator, Object value) throws IOException;
+
+    /**
+     * @param body       response body chunks holding a single value
+     * @param returnType class or parameterised type to deserialize to
+     * @return Mono of the deserialized value, empty if the body is empty
+     */
+    <T> Mono<T> decodeToMono(Flux<ByteBuf> body, Type returnType);
+
+    /**
+     * @param body       response body chunks holding an array
+     * @param returnType class or parameterised type to deserialize elements to
+     * @return Flux of deserialized elements, emitted as they are parsed
+     */
+    <T> Flux<T> decode(Flux<ByteBuf> body, Type returnType);
+
+    /**
+     * Unlike {@link #decode(Flux, Type)} this keeps null elements, which a Flux cannot carry. The default collects
+     * {@link #decode(Flux, Type)} and so drops them, formats with a null value should override it.
+     *
+     * @param body       response body chunks holding an array
+     * @param returnType class or parameterised type to deserialize elements to
+     * @return Mono of the deserialized elements in the order of the array
+     */
+    default <T> Mono<List<T>> decodeToList(Flux<ByteBuf> body, Type returnType) {
+        return this.<T>decode(body, returnType).collectList();
+    }
+
+    /**
+     * @param body       response body chunks holding a sequence of root level values
+     * @param returnType class or parameterised type to deserialize values to
+     * @return Flux of deserialized values, emitted as they are parsed
+     */
+    <T> Flux<T> decodeValues(Flux<ByteBuf> body, Type returnType);
+}
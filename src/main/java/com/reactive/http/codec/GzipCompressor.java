@@ -0,0 +1,39 @@
+package com.reactive.http.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips encoded request bodies from buffer to buffer, see {@code RestClientManager.Config#requestCompressionThreshold}
+ */
+public final class GzipCompressor {
+
+    private static final int DEFLATER_BUFFER_SIZE = 8192;
+
+    private GzipCompressor() {
+    }
+
+    /**
+     * @param allocator allocator of the channel the body is written to
+     * @param body      encoded body, released by this call
+     * @return direct buffer holding the gzipped body, owned by the caller
+     * @throws IOException if compression fails, no buffer is leaked in that case
+     */
+    public static ByteBuf compress(ByteBufAllocator allocator, ByteBuf body) throws IOException {
+        //JSON typically shrinks to a fraction, start small and let the buffer grow
+        ByteBuf compressed = allocator.directBuffer(Math.max(256, body.readableBytes() / 4));
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(new ByteBufOutputStream(compressed), DEFLATER_BUFFER_SIZE)) {
+            body.readBytes(gzipOutputStream, body.readableBytes());
+        } catch (IOException | RuntimeException e) {
+            compressed.release();
+            throw e;
+        } finally {
+            body.release();
+        }
+        return compressed;
+    }
+}
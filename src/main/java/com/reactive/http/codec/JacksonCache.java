@@ -0,0 +1,89 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves {@link JavaType}s and builds {@link ObjectReader}s/{@link ObjectWriter}s once per target type of a mapper.
+ * <p>
+ * Readers and writers are immutable and thread safe, so every request for the same type reuses the same instance
+ * instead of resolving the type through the {@code TypeFactory} and wrapping the mapper on each call. Entries are never
+ * evicted, which is fine for the bounded set of DTO types an application deserializes.
+ */
+public class JacksonCache {
+
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<Type, JavaType> javaTypes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Type, JavaType> listTypes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JacksonCache(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * @param type class or parameterised type, e.g. {@link TypeReference#getType()}
+     * @return resolved JavaType of the type
+     */
+    public JavaType javaType(Type type) {
+        JavaType javaType = javaTypes.get(type);
+        if (javaType == null) {
+            javaType = javaTypes.computeIfAbsent(type, t -> mapper.getTypeFactory().constructType(t));
+        }
+        return javaType;
+    }
+
+    public JavaType javaType(TypeReference<?> typeReference) {
+        return javaType(typeReference.getType());
+    }
+
+    /**
+     * @param elementType class or parameterised type of the list elements
+     * @return resolved JavaType of a List of the element type
+     */
+    public JavaType listType(Type elementType) {
+        JavaType listType = listTypes.get(elementType);
+        if (listType == null) {
+            listType = listTypes.computeIfAbsent(elementType,
+                    t -> mapper.getTypeFactory().constructCollectionType(List.class, javaType(t)));
+        }
+        return listType;
+    }
+
+    public ObjectReader reader(Type type) {
+        return reader(javaType(type));
+    }
+
+    public ObjectReader reader(JavaType javaType) {
+        ObjectReader reader = readers.get(javaType);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(javaType, mapper::readerFor);
+        }
+        return reader;
+    }
+
+    /**
+     * @param valueType runtime class of the values to serialize
+     * @return writer bound to the value type
+     */
+    public ObjectWriter writer(Class<?> valueType) {
+        ObjectWriter writer = writers.get(valueType);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(valueType, mapper::writerFor);
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,80 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * {@link Codec} for any Jackson data format, decoding through {@link JsonDecoder} and encoding through
+ * {@link JsonEncoder} with the readers and writers of one {@link JacksonCache}.
+ * <p>
+ * The format is the one of the mapper's factory. Formats with a non-blocking parser (JSON, Smile) are decoded chunk by
+ * chunk, all others are aggregated first, e.g. {@code new JacksonCodec(new ObjectMapper(new MessagePackFactory()),
+ * "application/msgpack")} with the msgpack-jackson factory.
+ */
+public class JacksonCodec implements Codec {
+
+    private final String mediaType;
+    private final JacksonCache jacksonCache;
+    private final JsonDecoder decoder;
+    private final JsonEncoder encoder;
+
+    public JacksonCodec(ObjectMapper mapper, String mediaType) {
+        this(new JacksonCache(mapper), mediaType);
+    }
+
+    public JacksonCodec(JacksonCache jacksonCache, String mediaType) {
+        this.mediaType = mediaType;
+        this.jacksonCache = jacksonCache;
+        this.decoder = new JsonDecoder(jacksonCache);
+        this.encoder = new JsonEncoder(jacksonCache);
+    }
+
+    @Override
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public JacksonCache getJacksonCache() {
+        return jacksonCache;
+    }
+
+    @Override
+    public ByteBuf encode(ByteBufAllocator allocator, Object value) throws IOException {
+        return encoder.encode(allocator, value);
+    }
+
+    @Override
+    public <T> Mono<T> decodeToMono(Flux<ByteBuf> body, Type returnType) {
+        return decoder.decodeToMono(body, javaType(returnType));
+    }
+
+    @Override
+    public <T> Flux<T> decode(Flux<ByteBuf> body, Type returnType) {
+        return decoder.decode(body, javaType(returnType));
+    }
+
+    @Override
+    public <T> Mono<List<T>> decodeToList(Flux<ByteBuf> body, Type returnType) {
+        return decoder.decodeToList(body, javaType(returnType));
+    }
+
+    @Override
+    public <T> Flux<T> decodeValues(Flux<ByteBuf> body, Type returnType) {
+        return decoder.decodeValues(body, javaType(returnType));
+    }
+
+    /**
+     * Types already resolved by the caller are used as is, JavaType implements {@link Type}
+     */
+    private JavaType javaType(Type type) {
+        return type instanceof JavaType ? (JavaType) type : jacksonCache.javaType(type);
+    }
+}
@@ -0,0 +1,33 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderValues;
+
+/**
+ * JSON {@link Codec}, the default of {@code RestClientManager}. Besides application/json it decodes any media type
+ * with the +json structured syntax suffix, e.g. application/problem+json.
+ */
+public class JsonCodec extends JacksonCodec {
+
+    public static final String MEDIA_TYPE = HttpHeaderValues.APPLICATION_JSON.toString();
+
+    private static final String JSON_SUFFIX = "+json";
+
+    public JsonCodec(ObjectMapper mapper) {
+        super(mapper, MEDIA_TYPE);
+    }
+
+    public JsonCodec(JacksonCache jacksonCache) {
+        super(jacksonCache, MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean supports(String contentType) {
+        if (super.supports(contentType)) {
+            return true;
+        }
+        int parametersStart = contentType.indexOf(';');
+        String mediaType = (parametersStart < 0 ? contentType : contentType.substring(0, parametersStart)).trim();
+        return mediaType.regionMatches(true, mediaType.length() - JSON_SUFFIX.length(), JSON_SUFFIX, 0, JSON_SUFFIX.length());
+    }
+}
@@ -0,0 +1,222 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Decodes JSON response bodies incrementally, straight from the {@link ByteBuf} chunks received from Netty.
+ * <p>
+ * Every chunk is fed into a non-blocking Jackson parser on arrival and objects are bound as soon as their last token is
+ * parsed, so the body is never aggregated into a single buffer, byte[] or String.
+ * <p>
+ * The body is parsed in the data format of the mapper's factory, so a Smile mapper decodes Smile just as incrementally.
+ * Formats without a non-blocking parser in Jackson, e.g. CBOR, are aggregated into one heap buffer first and then bound
+ * value by value.
+ * <p>
+ * Chunks are requested one at a time, so a slow subscriber of {@link #decode(Flux, Class)} or
+ * {@link #decodeValues(Flux, Class)} stops further chunks from being read off the connection.
+ */
+public class JsonDecoder {
+
+    //Only one chunk worth of tokens is buffered ahead of the subscriber's demand
+    private static final int CHUNK_PREFETCH = 1;
+
+    private final ObjectMapper mapper;
+    private final JacksonCache jacksonCache;
+    private final boolean byteBufferInput;
+
+    public JsonDecoder(ObjectMapper mapper) {
+        this(new JacksonCache(mapper));
+    }
+
+    public JsonDecoder(JacksonCache jacksonCache) {
+        this.mapper = jacksonCache.getMapper();
+        this.jacksonCache = jacksonCache;
+        //Only Jackson's JSON parser takes NIO buffers, other non-blocking parsers are fed byte arrays
+        this.byteBufferInput = JsonFactory.FORMAT_NAME_JSON.equals(mapper.getFactory().getFormatName());
+    }
+
+    /**
+     * Decodes a body holding a single JSON value
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType type to deserialize to
+     * @return Mono of the deserialized value, empty if the body is empty
+     */
+    public <T> Mono<T> decodeToMono(Flux<ByteBuf> body, Class<T> returnType) {
+        return decodeToMono(body, jacksonCache.javaType(returnType));
+    }
+
+    /**
+     * Decodes a body holding a single JSON value of a parameterised type
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType resolved type to deserialize to, see {@link JacksonCache#javaType(java.lang.reflect.Type)}
+     * @return Mono of the deserialized value, empty if the body is empty or JSON null
+     */
+    public <T> Mono<T> decodeToMono(Flux<ByteBuf> body, JavaType returnType) {
+        ObjectReader reader = jacksonCache.reader(returnType);
+        return tokenize(body, false)
+                .<T>handle((tokenBuffer, sink) -> emitNonNull(readValue(reader, tokenBuffer), sink))
+                .singleOrEmpty();
+    }
+
+    /**
+     * Decodes a body holding a JSON array, emitting each element as soon as it has been parsed
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType type to deserialize elements to
+     * @return Flux of deserialized elements
+     */
+    public <T> Flux<T> decode(Flux<ByteBuf> body, Class<T> returnType) {
+        return decode(body, jacksonCache.javaType(returnType));
+    }
+
+    /**
+     * Decodes a body holding a JSON array of a parameterised element type, emitting each element as soon as it has been
+     * parsed
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType resolved type to deserialize elements to
+     * @return Flux of deserialized elements, without null elements since a Flux cannot carry them
+     */
+    public <T> Flux<T> decode(Flux<ByteBuf> body, JavaType returnType) {
+        ObjectReader reader = jacksonCache.reader(returnType);
+        return tokenize(body, true)
+                .handle((tokenBuffer, sink) -> emitNonNull(readValue(reader, tokenBuffer), sink));
+    }
+
+    /**
+     * Decodes a body holding a sequence of root level JSON values, e.g. newline delimited JSON, emitting each value as
+     * soon as it has been parsed
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType type to deserialize values to
+     * @return Flux of deserialized values
+     */
+    public <T> Flux<T> decodeValues(Flux<ByteBuf> body, Class<T> returnType) {
+        return decodeValues(body, jacksonCache.javaType(returnType));
+    }
+
+    /**
+     * Decodes a body holding a sequence of root level values of a parameterised type, emitting each value as soon as it
+     * has been parsed
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType resolved type to deserialize values to
+     * @return Flux of deserialized values, without null values since a Flux cannot carry them
+     */
+    public <T> Flux<T> decodeValues(Flux<ByteBuf> body, JavaType returnType) {
+        ObjectReader reader = jacksonCache.reader(returnType);
+        return tokenize(body, false)
+                .handle((tokenBuffer, sink) -> emitNonNull(readValue(reader, tokenBuffer), sink));
+    }
+
+    /**
+     * Decodes a body holding a JSON array into a list
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType type to deserialize elements to
+     * @return Mono of the deserialized elements, null elements included
+     */
+    public <T> Mono<List<T>> decodeToList(Flux<ByteBuf> body, Class<T> returnType) {
+        return decodeToList(body, jacksonCache.javaType(returnType));
+    }
+
+    /**
+     * Decodes a body holding a JSON array of a parameterised element type into a list
+     *
+     * @param body       response body chunks, released by the caller once emitted
+     * @param returnType resolved type to deserialize elements to
+     * @return Mono of the deserialized elements, null elements included
+     */
+    public <T> Mono<List<T>> decodeToList(Flux<ByteBuf> body, JavaType returnType) {
+        ObjectReader reader = jacksonCache.reader(returnType);
+        //Collected straight from the token buffers, a JSON null element never has to travel through the Flux
+        return tokenize(body, true)
+                .collect(ArrayList::new, (list, tokenBuffer) -> list.add(this.<T>readValue(reader, tokenBuffer)));
+    }
+
+    /**
+     * Splits the body into one TokenBuffer per JSON value. Each chunk is tokenized while it is being emitted, i.e.
+     * before Netty releases it, and only the resulting tokens travel further down the pipeline.
+     */
+    private Flux<TokenBuffer> tokenize(Flux<ByteBuf> body, boolean tokenizeArrayElements) {
+        JsonFactory factory = mapper.getFactory();
+        if (!factory.canParseAsync()) {
+            return tokenizeAggregated(body, tokenizeArrayElements);
+        }
+        return Flux.defer(() -> {
+            JsonTokenizer tokenizer;
+            try {
+                JsonParser parser = byteBufferInput ? factory.createNonBlockingByteBufferParser() : factory.createNonBlockingByteArrayParser();
+                tokenizer = new JsonTokenizer(parser, tokenizeArrayElements);
+            } catch (IOException e) {
+                return Flux.error(e);
+            }
+            return body
+                    .map(chunk -> {
+                        try {
+                            return tokenizer.tokenize(chunk);
+                        } catch (IOException e) {
+                            throw Exceptions.propagate(e);
+                        }
+                    })
+                    .concatWith(Mono.fromCallable(tokenizer::endOfInput))
+                    .concatMapIterable(Function.identity(), CHUNK_PREFETCH)
+                    .doFinally(signalType -> tokenizer.close());
+        });
+    }
+
+    /**
+     * Fallback for formats Jackson cannot parse incrementally. Chunks are copied into a heap buffer as they arrive, so
+     * Netty can still release them right away, and the complete body is tokenized by a regular parser.
+     */
+    private Flux<TokenBuffer> tokenizeAggregated(Flux<ByteBuf> body, boolean tokenizeArrayElements) {
+        return body
+                .collect(Unpooled::buffer, (aggregate, chunk) -> aggregate.writeBytes(chunk, chunk.readerIndex(), chunk.readableBytes()))
+                .flatMapIterable(aggregate -> {
+                    JsonTokenizer tokenizer = null;
+                    try {
+                        tokenizer = new JsonTokenizer(mapper.getFactory().createParser(aggregate.array(),
+                                aggregate.arrayOffset() + aggregate.readerIndex(), aggregate.readableBytes()), tokenizeArrayElements);
+                        return tokenizer.endOfInput();
+                    } catch (IOException e) {
+                        throw Exceptions.propagate(e);
+                    } finally {
+                        if (tokenizer != null) {
+                            tokenizer.close();
+                        }
+                    }
+                });
+    }
+
+    private static <T> void emitNonNull(T value, SynchronousSink<T> sink) {
+        if (value != null) {
+            sink.next(value);
+        }
+    }
+
+    private <T> T readValue(ObjectReader reader, TokenBuffer tokenBuffer) {
+        try {
+            return reader.readValue(tokenBuffer.asParser(mapper));
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Serializes request bodies straight into a {@link ByteBuf} of the channel's allocator.
+ * <p>
+ * Jackson writes into a pooled direct buffer through a {@link ByteBufOutputStream}, so no intermediate String or byte[]
+ * copy of the body is made and the buffer is written to the socket without another copy.
+ */
+public class JsonEncoder {
+
+    private final JacksonCache jacksonCache;
+
+    public JsonEncoder(ObjectMapper mapper) {
+        this(new JacksonCache(mapper));
+    }
+
+    public JsonEncoder(JacksonCache jacksonCache) {
+        this.jacksonCache = jacksonCache;
+    }
+
+    /**
+     * @param allocator allocator of the channel the body is written to
+     * @param value     value to serialize
+     * @return direct buffer holding the serialized value, owned by the caller
+     * @throws IOException if the value cannot be serialized, no buffer is leaked in that case
+     */
+    public ByteBuf encode(ByteBufAllocator allocator, Object value) throws IOException {
+        ByteBuf buffer = allocator.directBuffer();
+        try (OutputStream outputStream = new ByteBufOutputStream(buffer)) {
+            jacksonCache.writer(value.getClass()).writeValue(outputStream, value);
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+}
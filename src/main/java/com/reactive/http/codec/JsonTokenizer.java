@@ -0,0 +1,184 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.core.async.NonBlockingInputFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Feeds response chunks into Jackson's non-blocking parser as they arrive and splits the token stream into one
+ * {@link TokenBuffer} per complete JSON value, or value of any other Jackson data format such as Smile.
+ * <p>
+ * JSON chunks are fed as NIO views over the {@link ByteBuf}, so no byte[] or String copy of the payload is made.
+ * Formats whose parser only takes byte[] input are fed the buffer's backing array, direct buffers are copied into a
+ * scratch array reused across chunks. A blocking parser over an already complete body is drained by
+ * {@link #endOfInput()} alone, for formats Jackson cannot parse incrementally. Each chunk
+ * is fully consumed before {@link #tokenize(ByteBuf)} returns, so the caller may release it right after. Only the
+ * tokens of the value currently being parsed are retained, bounding memory by value size instead of payload size.
+ * <p>
+ * Not thread safe, one instance per response body.
+ */
+class JsonTokenizer {
+
+    private final JsonParser parser;
+    private final NonBlockingInputFeeder feeder;
+    private final boolean tokenizeArrayElements;
+
+    private byte[] scratch;
+    private TokenBuffer tokenBuffer;
+    private int objectDepth;
+    private int arrayDepth;
+
+    /**
+     * @param parser                non-blocking parser fed through a {@link ByteBufferFeeder} or {@link ByteArrayFeeder},
+     *                              or a blocking parser over the complete body
+     * @param tokenizeArrayElements when true, the elements of a root level array are emitted one by one instead of the
+     *                              array as a whole
+     */
+    JsonTokenizer(JsonParser parser, boolean tokenizeArrayElements) {
+        this.parser = parser;
+        this.feeder = parser.getNonBlockingInputFeeder();
+        this.tokenizeArrayElements = tokenizeArrayElements;
+        this.tokenBuffer = new TokenBuffer(parser);
+    }
+
+    /**
+     * Feeds the readable bytes of a chunk into the parser
+     *
+     * @param chunk chunk of the response body, not retained past this call
+     * @return values completed by this chunk, possibly empty
+     * @throws IOException if the chunk is malformed
+     */
+    List<TokenBuffer> tokenize(ByteBuf chunk) throws IOException {
+        if (!chunk.isReadable()) {
+            return Collections.emptyList();
+        }
+        List<TokenBuffer> result = new ArrayList<>(1);
+        if (feeder instanceof ByteBufferFeeder) {
+            feedByteBuffers((ByteBufferFeeder) feeder, chunk, result);
+        } else {
+            feedByteArray((ByteArrayFeeder) feeder, chunk, result);
+        }
+        return result;
+    }
+
+    /**
+     * Signals the end of the body to the parser
+     *
+     * @return values completed by the end of input, possibly empty
+     * @throws IOException if the body ended in the middle of a value
+     */
+    List<TokenBuffer> endOfInput() throws IOException {
+        if (feeder != null) {
+            feeder.endOfInput();
+        }
+        List<TokenBuffer> result = new ArrayList<>(1);
+        parseTokens(result);
+        if (objectDepth != 0 || arrayDepth != 0) {
+            throw new IOException("Unexpected end of input");
+        }
+        return result;
+    }
+
+    void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            //Non-blocking parsers hold no resources worth reporting on close
+        }
+    }
+
+    private void feedByteBuffers(ByteBufferFeeder byteBufferFeeder, ByteBuf chunk, List<TokenBuffer> result) throws IOException {
+        if (chunk.nioBufferCount() == 1) {
+            byteBufferFeeder.feedInput(chunk.nioBuffer());
+            parseTokens(result);
+        } else {
+            //Composite buffers are fed one component at a time, the parser must drain each before the next is fed
+            for (ByteBuffer component : chunk.nioBuffers()) {
+                byteBufferFeeder.feedInput(component);
+                parseTokens(result);
+            }
+        }
+    }
+
+    private void feedByteArray(ByteArrayFeeder byteArrayFeeder, ByteBuf chunk, List<TokenBuffer> result) throws IOException {
+        int length = chunk.readableBytes();
+        if (chunk.hasArray()) {
+            int start = chunk.arrayOffset() + chunk.readerIndex();
+            byteArrayFeeder.feedInput(chunk.array(), start, start + length);
+        } else {
+            //Safe to reuse, the parser is drained before the next chunk is fed
+            if (scratch == null || scratch.length < length) {
+                scratch = new byte[Math.max(length, 8192)];
+            }
+            chunk.getBytes(chunk.readerIndex(), scratch, 0, length);
+            byteArrayFeeder.feedInput(scratch, 0, length);
+        }
+        parseTokens(result);
+    }
+
+    private void parseTokens(List<TokenBuffer> result) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            updateDepth(token);
+            if (tokenizeArrayElements) {
+                processArrayElementToken(token, result);
+            } else {
+                processValueToken(token, result);
+            }
+        }
+    }
+
+    private void updateDepth(JsonToken token) {
+        switch (token) {
+            case START_OBJECT:
+                objectDepth++;
+                break;
+            case END_OBJECT:
+                objectDepth--;
+                break;
+            case START_ARRAY:
+                arrayDepth++;
+                break;
+            case END_ARRAY:
+                arrayDepth--;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void processValueToken(JsonToken token, List<TokenBuffer> result) throws IOException {
+        tokenBuffer.copyCurrentEvent(parser);
+        if (objectDepth == 0 && arrayDepth == 0 && (token.isStructEnd() || token.isScalarValue())) {
+            emit(result);
+        }
+    }
+
+    private void processArrayElementToken(JsonToken token, List<TokenBuffer> result) throws IOException {
+        //The brackets of the root array itself are dropped, everything else belongs to an element
+        boolean rootArrayToken = objectDepth == 0
+                && ((token == JsonToken.START_ARRAY && arrayDepth == 1) || (token == JsonToken.END_ARRAY && arrayDepth == 0));
+        if (rootArrayToken) {
+            return;
+        }
+        tokenBuffer.copyCurrentEvent(parser);
+        if (objectDepth == 0 && arrayDepth <= 1 && (token.isStructEnd() || token.isScalarValue())) {
+            emit(result);
+        }
+    }
+
+    private void emit(List<TokenBuffer> result) {
+        result.add(tokenBuffer);
+        tokenBuffer = new TokenBuffer(parser);
+    }
+}
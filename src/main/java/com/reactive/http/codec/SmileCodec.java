@@ -0,0 +1,30 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Smile {@link Codec}, Jackson's binary JSON. Decoded incrementally like JSON, through Jackson's non-blocking Smile
+ * parser. Needs the optional jackson-dataformat-smile dependency.
+ */
+public class SmileCodec extends JacksonCodec {
+
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    /**
+     * Creates a codec whose mapper, like the client's default JSON mapper, ignores unknown properties
+     */
+    public SmileCodec() {
+        this(SmileMapper.builder()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .build());
+    }
+
+    /**
+     * @param smileMapper mapper built on a {@code SmileFactory}
+     */
+    public SmileCodec(ObjectMapper smileMapper) {
+        super(smileMapper, MEDIA_TYPE);
+    }
+}
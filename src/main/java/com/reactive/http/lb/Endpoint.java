@@ -0,0 +1,112 @@
+package com.reactive.http.lb;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live routing state of one endpoint of a service: calls in flight, latency EWMA and outlier ejection.
+ * <p>
+ * Counters are atomics so routing reads them without locking. The EWMA is peak sensitive: a slower sample replaces it
+ * at once, faster samples and idle time only decay it with the policy's time constant. The decay is also applied when
+ * reading, so an endpoint that was slow and then left idle becomes attractive again and gets probed.
+ */
+class Endpoint {
+
+    private final String baseUrl;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong ejectionCount = new AtomicLong();
+    //A lock rather than a monitor, so a contended update never pins a virtual thread to its carrier
+    private final ReentrantLock ewmaLock = new ReentrantLock();
+
+    private volatile double latencyEwmaNanos;
+    private volatile long lastSampleNanos;
+    private volatile int ejectionsSinceSuccess;
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+
+    Endpoint(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    void onEnd() {
+        inFlight.decrementAndGet();
+    }
+
+    boolean isAvailable(long nowNanos) {
+        return !ejected || nowNanos - ejectedUntilNanos >= 0;
+    }
+
+    long getEjectionCount() {
+        return ejectionCount.get();
+    }
+
+    /**
+     * @return latency EWMA decayed to now, 0 without any sample
+     */
+    double latencyEwmaNanos(long nowNanos, long decayNanos) {
+        double ewma = latencyEwmaNanos;
+        if (ewma == 0) {
+            return 0;
+        }
+        return ewma * Math.exp(-Math.max(0, nowNanos - lastSampleNanos) / (double) decayNanos);
+    }
+
+    void onSuccess(long latencyNanos, long nowNanos, long decayNanos) {
+        consecutiveFailures.set(0);
+        if (ejected) {
+            ejected = false;
+            ejectionsSinceSuccess = 0;
+        }
+        ewmaLock.lock();
+        try {
+            double current = latencyEwmaNanos(nowNanos, decayNanos);
+            if (latencyNanos > current) {
+                latencyEwmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-Math.max(0, nowNanos - lastSampleNanos) / (double) decayNanos);
+                latencyEwmaNanos = current * weight + latencyNanos * (1 - weight);
+            }
+            lastSampleNanos = nowNanos;
+        } finally {
+            ewmaLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of consecutive failures including this one
+     */
+    int onFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * Ejects the endpoint unless another failure already did, the failure count starts over once ejected
+     *
+     * @param failures value returned by {@link #onFailure()} for the failure triggering the ejection
+     */
+    void eject(int failures, long nowNanos, LoadBalancerPolicy policy) {
+        if (!consecutiveFailures.compareAndSet(failures, 0)) {
+            return;
+        }
+        int ejections = ejectionsSinceSuccess + 1;
+        long ejectionNanos = Math.min(policy.getMaxEjectionTime().toNanos(), policy.getBaseEjectionTime().toNanos() * ejections);
+        ejectionsSinceSuccess = ejections;
+        ejectedUntilNanos = nowNanos + ejectionNanos;
+        ejected = true;
+        ejectionCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,31 @@
+package com.reactive.http.lb;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Supplies the endpoints of a logical service, base urls such as {@code http://10.0.0.7:8080} or
+ * {@code https://orders-2.internal/api}. Called on every routed call, so implementations must be cheap and should
+ * return the same list instance as long as the endpoints have not changed.
+ */
+@FunctionalInterface
+public interface EndpointSource {
+
+    List<String> getEndpoints();
+
+    /**
+     * @param baseUrls fixed endpoints of the service
+     */
+    static EndpointSource of(String... baseUrls) {
+        List<String> endpoints = List.of(baseUrls);
+        return () -> endpoints;
+    }
+
+    /**
+     * @param file text file with one base url per line, blank lines and lines starting with # are ignored. Re-read
+     *             when its modification time or size changes, checked once a second off the request path
+     */
+    static EndpointSource fromFile(Path file) {
+        return new FileEndpointSource(file);
+    }
+}
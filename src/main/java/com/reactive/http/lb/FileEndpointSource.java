@@ -0,0 +1,88 @@
+package com.reactive.http.lb;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endpoints listed in a local file, see {@link EndpointSource#fromFile(Path)}.
+ * <p>
+ * The file is read once when the source is created and then checked every {@link #CHECK_INTERVAL} on a bounded elastic
+ * thread, re-read when its modification time or size changed. The request path, running on event loops, only reads the
+ * last parsed list and never touches the disk. A file that cannot be read keeps the previously read endpoints in place.
+ * Polling holds the source weakly and stops once the source is no longer referenced.
+ */
+class FileEndpointSource implements EndpointSource {
+
+    private static final Duration CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    private final Path file;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), -1, -1);
+
+    FileEndpointSource(Path file) {
+        this.file = file;
+        refresh();
+        WeakReference<FileEndpointSource> sourceRef = new WeakReference<>(this);
+        Flux.interval(CHECK_INTERVAL, CHECK_INTERVAL, Schedulers.boundedElastic())
+                .takeWhile(tick -> refresh(sourceRef))
+                .subscribe();
+    }
+
+    @Override
+    public List<String> getEndpoints() {
+        return snapshot.endpoints;
+    }
+
+    /**
+     * @return false once the source was garbage collected, ending the polling
+     */
+    private static boolean refresh(WeakReference<FileEndpointSource> sourceRef) {
+        FileEndpointSource source = sourceRef.get();
+        if (source == null) {
+            return false;
+        }
+        source.refresh();
+        return true;
+    }
+
+    private void refresh() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long modifiedMillis = attributes.lastModifiedTime().toMillis();
+            Snapshot current = snapshot;
+            if (modifiedMillis == current.modifiedMillis && attributes.size() == current.size) {
+                return;
+            }
+            List<String> endpoints = new ArrayList<>();
+            for (String line : Files.readAllLines(file)) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    endpoints.add(trimmed);
+                }
+            }
+            snapshot = new Snapshot(List.copyOf(endpoints), modifiedMillis, attributes.size());
+        } catch (IOException ignored) {
+            //Keep routing to the last known endpoints, the file is checked again on the next tick
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<String> endpoints;
+        private final long modifiedMillis;
+        private final long size;
+
+        private Snapshot(List<String> endpoints, long modifiedMillis, long size) {
+            this.endpoints = endpoints;
+            this.modifiedMillis = modifiedMillis;
+            this.size = size;
+        }
+    }
+}
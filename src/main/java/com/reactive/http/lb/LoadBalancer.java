@@ -0,0 +1,268 @@
+package com.reactive.http.lb;
+
+import com.reactive.http.limit.LimitExceededException;
+import com.reactive.http.model.ErrorResponse;
+import com.reactive.http.model.RestApiResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Client side load balancer resolving {@code lb://service/path} urls to one of the service's endpoints per call, see
+ * {@link LoadBalancerPolicy}.
+ * <p>
+ * Every call picks an endpoint from live in-flight counts and latency EWMAs, so slow or overloaded replicas receive
+ * less traffic without an extra hop through a proxy. Calls never signal errors, outcomes are read from the
+ * RestApiResult and a call to a service without endpoints yields a result carrying a
+ * {@link NoEndpointAvailableException}. Streams count towards an endpoint's calls in flight, but not towards its
+ * latency or ejection since a stream's duration says nothing about the endpoint's speed.
+ */
+public class LoadBalancer {
+
+    public static final String SCHEME = "lb://";
+
+    private final LoadBalancerPolicy policy;
+    private final long decayNanos;
+    private final Map<String, Service> services;
+
+    /**
+     * @param policy  routing and ejection settings
+     * @param sources endpoint sources by service name
+     */
+    public LoadBalancer(LoadBalancerPolicy policy, Map<String, EndpointSource> sources) {
+        this.policy = policy;
+        this.decayNanos = Math.max(1, policy.getEwmaDecay().toNanos());
+        Map<String, Service> serviceMap = new HashMap<>();
+        sources.forEach((name, source) -> serviceMap.put(name, new Service(source)));
+        this.services = Map.copyOf(serviceMap);
+    }
+
+    /**
+     * @return true if the url addresses a load balanced service, i.e. starts with lb://
+     */
+    public static boolean isLoadBalanced(String url) {
+        return url.regionMatches(true, 0, SCHEME, 0, SCHEME.length());
+    }
+
+    /**
+     * @param url  lb://service/path url of the call
+     * @param call makes the call to the absolute url of the chosen endpoint
+     * @return Mono of the call's result
+     */
+    public <T> Mono<RestApiResult<T>> execute(String url, Function<String, Mono<RestApiResult<T>>> call) {
+        return Mono.defer(() -> {
+            int serviceEnd = serviceEnd(url);
+            String serviceName = url.substring(SCHEME.length(), serviceEnd);
+            Service service = services.get(serviceName);
+            long startNanos = System.nanoTime();
+            Endpoint endpoint = service != null ? service.choose(startNanos) : null;
+            if (endpoint == null) {
+                return Mono.just(RestApiResult.<T>failure(ErrorResponse.ofException(new NoEndpointAvailableException(serviceName)), null));
+            }
+            endpoint.onStart();
+            return call.apply(endpoint.getBaseUrl() + url.substring(serviceEnd))
+                    .doOnNext(result -> service.onResult(endpoint, result, startNanos))
+                    .doFinally(signalType -> endpoint.onEnd());
+        });
+    }
+
+    /**
+     * @param url  lb://service/path url of the stream
+     * @param call opens the stream from the absolute url of the chosen endpoint
+     * @return Flux of the stream, signalling a {@link NoEndpointAvailableException} if the service has no endpoint
+     */
+    public <T> Flux<T> stream(String url, Function<String, Flux<T>> call) {
+        return Flux.defer(() -> {
+            int serviceEnd = serviceEnd(url);
+            String serviceName = url.substring(SCHEME.length(), serviceEnd);
+            Service service = services.get(serviceName);
+            Endpoint endpoint = service != null ? service.choose(System.nanoTime()) : null;
+            if (endpoint == null) {
+                return Flux.error(new NoEndpointAvailableException(serviceName));
+            }
+            endpoint.onStart();
+            return call.apply(endpoint.getBaseUrl() + url.substring(serviceEnd))
+                    .doFinally(signalType -> endpoint.onEnd());
+        });
+    }
+
+    public LoadBalancerStats stats() {
+        long nowNanos = System.nanoTime();
+        Map<String, List<LoadBalancerStats.EndpointStats>> endpointStats = new LinkedHashMap<>();
+        services.forEach((name, service) -> {
+            List<LoadBalancerStats.EndpointStats> stats = new ArrayList<>();
+            for (Endpoint endpoint : service.endpoints()) {
+                stats.add(new LoadBalancerStats.EndpointStats(endpoint.getBaseUrl(), endpoint.inFlight(),
+                        endpoint.latencyEwmaNanos(nowNanos, decayNanos) / 1_000_000d, !endpoint.isAvailable(nowNanos),
+                        endpoint.getEjectionCount()));
+            }
+            endpointStats.put(name, stats);
+        });
+        return new LoadBalancerStats(endpointStats);
+    }
+
+    private static int serviceEnd(String url) {
+        int end = SCHEME.length();
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Transport failures and 5xx responses count against the endpoint's health, 4xx responses are the caller's problem
+     */
+    private static boolean isFailure(RestApiResult<?> result) {
+        return !result.isSuccess() && (result.getHttpStatusCode() == 0 || result.getHttpStatusCode() >= 500);
+    }
+
+    /**
+     * @return true if a client side limit shed the call, which then never reached the endpoint
+     */
+    private static boolean isShed(RestApiResult<?> result) {
+        return result.getHttpStatusCode() == 0 && result.getErrorResponse() != null
+                && result.getErrorResponse().getException() instanceof LimitExceededException;
+    }
+
+    private final class Service {
+        private final EndpointSource source;
+        private final ReentrantLock rebuildLock = new ReentrantLock();
+        private volatile Routing routing = new Routing(null, new Endpoint[0]);
+
+        private Service(EndpointSource source) {
+            this.source = source;
+        }
+
+        private Endpoint choose(long nowNanos) {
+            Endpoint[] endpoints = endpoints();
+            int count = endpoints.length;
+            if (count <= 1) {
+                return count == 0 ? null : endpoints[0];
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(count);
+            if (policy.getStrategy() == LoadBalancerPolicy.Strategy.LEAST_OUTSTANDING) {
+                Endpoint best = null;
+                for (int i = 0; i < count; i++) {
+                    Endpoint candidate = endpoints[(first + i) % count];
+                    if (candidate.isAvailable(nowNanos) && (best == null || candidate.inFlight() < best.inFlight())) {
+                        best = candidate;
+                    }
+                }
+                //Only with maxEjectionPercent 1 can every endpoint be ejected, routing anywhere beats failing
+                return best != null ? best : endpoints[first];
+            }
+
+            int second = random.nextInt(count - 1);
+            if (second >= first) {
+                second++;
+            }
+            Endpoint a = nextAvailable(endpoints, first, nowNanos);
+            Endpoint b = nextAvailable(endpoints, second, nowNanos);
+            if (a == null) {
+                return endpoints[first];
+            }
+            return cheaper(a, b, nowNanos);
+        }
+
+        private Endpoint nextAvailable(Endpoint[] endpoints, int start, long nowNanos) {
+            for (int i = 0; i < endpoints.length; i++) {
+                Endpoint candidate = endpoints[(start + i) % endpoints.length];
+                if (candidate.isAvailable(nowNanos)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        private Endpoint cheaper(Endpoint a, Endpoint b, long nowNanos) {
+            double latencyA = a.latencyEwmaNanos(nowNanos, decayNanos);
+            double latencyB = b.latencyEwmaNanos(nowNanos, decayNanos);
+            if (latencyA == 0 || latencyB == 0) {
+                //No latency known yet for one of them, fall back to the fewest calls in flight
+                return b.inFlight() < a.inFlight() ? b : a;
+            }
+            return latencyB * (b.inFlight() + 1) < latencyA * (a.inFlight() + 1) ? b : a;
+        }
+
+        private void onResult(Endpoint endpoint, RestApiResult<?> result, long startNanos) {
+            if (isShed(result)) {
+                return;
+            }
+            long nowNanos = System.nanoTime();
+            if (!isFailure(result)) {
+                endpoint.onSuccess(nowNanos - startNanos, nowNanos, decayNanos);
+                return;
+            }
+            int failures = endpoint.onFailure();
+            if (failures >= policy.getConsecutiveFailures() && canEject(nowNanos)) {
+                endpoint.eject(failures, nowNanos, policy);
+            }
+        }
+
+        /**
+         * Racing ejections may exceed maxEjectionPercent by one endpoint, which is harmless
+         */
+        private boolean canEject(long nowNanos) {
+            Endpoint[] endpoints = endpoints();
+            int ejected = 0;
+            for (Endpoint endpoint : endpoints) {
+                if (!endpoint.isAvailable(nowNanos)) {
+                    ejected++;
+                }
+            }
+            return ejected + 1 <= policy.getMaxEjectionPercent() * endpoints.length;
+        }
+
+        /**
+         * @return current endpoints, rebuilt when the source returns another list while keeping the state of endpoints
+         * still listed
+         */
+        private Endpoint[] endpoints() {
+            List<String> baseUrls = source.getEndpoints();
+            Routing current = routing;
+            if (baseUrls == current.baseUrls) {
+                return current.endpoints;
+            }
+            rebuildLock.lock();
+            try {
+                current = routing;
+                if (baseUrls != current.baseUrls) {
+                    Map<String, Endpoint> existing = new HashMap<>();
+                    for (Endpoint endpoint : current.endpoints) {
+                        existing.put(endpoint.getBaseUrl(), endpoint);
+                    }
+                    List<Endpoint> endpoints = new ArrayList<>(baseUrls.size());
+                    for (String baseUrl : baseUrls) {
+                        String normalized = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+                        Endpoint endpoint = existing.remove(normalized);
+                        endpoints.add(endpoint != null ? endpoint : new Endpoint(normalized));
+                    }
+                    current = new Routing(baseUrls, endpoints.toArray(new Endpoint[0]));
+                    routing = current;
+                }
+                return current.endpoints;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private static final class Routing {
+        private final List<String> baseUrls;
+        private final Endpoint[] endpoints;
+
+        private Routing(List<String> baseUrls, Endpoint[] endpoints) {
+            this.baseUrls = baseUrls;
+            this.endpoints = endpoints;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.reactive.http.lb;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Routing and outlier ejection settings of a {@link LoadBalancer}.
+ * <p>
+ * An endpoint failing {@link #consecutiveFailures} calls in a row is ejected from routing for
+ * {@link #baseEjectionTime}, multiplied by the number of times it was ejected since its last success and capped at
+ * {@link #maxEjectionTime}. Transport failures and 5xx responses count as failures. At most
+ * {@link #maxEjectionPercent} of a service's endpoints are ejected at a time, so a service-wide outage does not empty
+ * the rotation.
+ */
+@Value
+@Builder(toBuilder = true)
+public class LoadBalancerPolicy {
+
+    public enum Strategy {
+        /**
+         * The endpoint with the fewest calls in flight, ties broken at random
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * The cheaper of two random endpoints, cost being latency EWMA times calls in flight
+         */
+        POWER_OF_TWO_CHOICES
+    }
+
+    @Builder.Default
+    Strategy strategy = Strategy.POWER_OF_TWO_CHOICES;
+
+    /**
+     * Time constant of the latency EWMA, older samples lose weight exponentially with it. Latency spikes are taken
+     * over at once, only the decay is smoothed
+     */
+    @Builder.Default
+    Duration ewmaDecay = Duration.ofSeconds(10);
+
+    @Builder.Default
+    int consecutiveFailures = 5;
+
+    @Builder.Default
+    Duration baseEjectionTime = Duration.ofSeconds(30);
+
+    @Builder.Default
+    Duration maxEjectionTime = Duration.ofMinutes(5);
+
+    @Builder.Default
+    double maxEjectionPercent = 0.5;
+}
@@ -0,0 +1,31 @@
+package com.reactive.http.lb;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point in time snapshot of a {@link LoadBalancer}'s endpoints
+ */
+@Value
+public class LoadBalancerStats {
+
+    /**
+     * Endpoints per service, in the order their source lists them
+     */
+    Map<String, List<EndpointStats>> endpoints;
+
+    @Value
+    public static class EndpointStats {
+        String baseUrl;
+        int inFlight;
+
+        /**
+         * Latency EWMA in milliseconds, 0 until the first successful call
+         */
+        double latencyEwmaMillis;
+        boolean ejected;
+        long ejectionCount;
+    }
+}
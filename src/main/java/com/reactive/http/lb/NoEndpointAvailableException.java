@@ -0,0 +1,12 @@
+package com.reactive.http.lb;
+
+/**
+ * Reported in the ErrorResponse of calls to a load balanced service without a configured or listed endpoint
+ */
+public class NoEndpointAvailableException extends Exception {
+
+    public NoEndpointAvailableException(String service) {
+        //Thrown on the fail fast path, so the stack trace is not captured
+        super("No endpoint available for service " + service, null, false, false);
+    }
+}
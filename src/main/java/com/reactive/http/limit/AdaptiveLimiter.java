@@ -0,0 +1,124 @@
+package com.reactive.http.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limit of one host, see {@link ConcurrencyLimitPolicy}.
+ * <p>
+ * Acquiring and releasing a permit are single CAS operations and completions only add to striped counters. The limit
+ * itself is recomputed once per window by whichever completing call first notices the window has passed, so no call
+ * ever waits for the computation.
+ */
+class AdaptiveLimiter {
+
+    enum Outcome {SUCCESS, DROPPED}
+
+    private static final double LONG_RTT_WEIGHT = 0.05;
+
+    private final ConcurrencyLimitPolicy policy;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder rttSumNanos = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private final AtomicLong nextUpdateNanos;
+
+    //Written only by the call that claimed the window, volatile so the next window's claimant sees them
+    private volatile double estimatedLimit;
+    private volatile double longRttNanos;
+    private volatile int limit;
+
+    AdaptiveLimiter(ConcurrencyLimitPolicy policy) {
+        if (policy.getMinLimit() < 1 || policy.getMaxLimit() < policy.getMinLimit()) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= maxLimit");
+        }
+        this.policy = policy;
+        this.windowNanos = Math.max(1, policy.getWindow().toNanos());
+        this.nextUpdateNanos = new AtomicLong(System.nanoTime() + windowNanos);
+        this.estimatedLimit = Math.max(policy.getMinLimit(), Math.min(policy.getMaxLimit(), policy.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return true if a permit was taken, to be returned through {@link #release()}
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > peakInFlight.get()) {
+                    peakInFlight.accumulateAndGet(current + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Records a completed call, cancelled calls are not recorded as they say nothing about the host
+     */
+    void onComplete(long rttNanos, Outcome outcome, long nowNanos) {
+        if (outcome == Outcome.DROPPED) {
+            drops.increment();
+        } else {
+            samples.increment();
+            rttSumNanos.add(rttNanos);
+        }
+        long nextUpdate = nextUpdateNanos.get();
+        if (nowNanos - nextUpdate >= 0 && nextUpdateNanos.compareAndSet(nextUpdate, nowNanos + windowNanos)) {
+            update();
+        }
+    }
+
+    private void update() {
+        long sampleCount = samples.sumThenReset();
+        long rttSum = rttSumNanos.sumThenReset();
+        long dropCount = drops.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (sampleCount == 0 && dropCount == 0) {
+            return;
+        }
+
+        double current = estimatedLimit;
+        double next;
+        if (dropCount > 0) {
+            next = current * policy.getBackoffRatio();
+        } else if (policy.getAlgorithm() == ConcurrencyLimitPolicy.Algorithm.AIMD) {
+            //One more permit per limit's worth of successful calls, i.e. roughly per round trip at full load
+            next = current + sampleCount / current;
+        } else {
+            double shortRtt = (double) rttSum / sampleCount;
+            double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos * (1 - LONG_RTT_WEIGHT) + shortRtt * LONG_RTT_WEIGHT;
+            longRttNanos = longRtt;
+            double gradient = Math.max(0.5, Math.min(1.0, policy.getTolerance() * longRtt / shortRtt));
+            //The square root leaves headroom for a small queue, so the limit can still probe upwards
+            double target = current * gradient + Math.sqrt(current);
+            next = current * (1 - policy.getSmoothing()) + target * policy.getSmoothing();
+        }
+        if (peak * 2 < current) {
+            next = Math.min(next, current);
+        }
+        next = Math.max(policy.getMinLimit(), Math.min(policy.getMaxLimit(), next));
+        estimatedLimit = next;
+        limit = (int) next;
+    }
+}
@@ -0,0 +1,52 @@
+package com.reactive.http.limit;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Adaptive limit on the calls in flight to a host.
+ * <p>
+ * The limit is recomputed once per {@link #window} from the calls completed in it. 429 and 503 responses and transport
+ * failures count as drops, which multiply the limit by {@link #backoffRatio}. Without drops AIMD grows the limit by one
+ * per limit's worth of completed calls, GRADIENT tracks the ratio of the long-term to the recent average latency and
+ * shrinks the limit as soon as latency rises above {@link #tolerance} times its long-term average. The limit only grows
+ * while at least half of it was in use, a lightly loaded host gives no evidence of spare capacity.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ConcurrencyLimitPolicy {
+
+    public enum Algorithm {AIMD, GRADIENT}
+
+    @Builder.Default
+    Algorithm algorithm = Algorithm.GRADIENT;
+
+    @Builder.Default
+    int initialLimit = 20;
+
+    @Builder.Default
+    int minLimit = 1;
+
+    @Builder.Default
+    int maxLimit = 200;
+
+    @Builder.Default
+    double backoffRatio = 0.9;
+
+    /**
+     * Recent latency up to this multiple of the long-term average is not treated as congestion, GRADIENT only
+     */
+    @Builder.Default
+    double tolerance = 1.5;
+
+    /**
+     * Weight of a window's computed limit in the smoothed limit, GRADIENT only
+     */
+    @Builder.Default
+    double smoothing = 0.2;
+
+    @Builder.Default
+    Duration window = Duration.ofMillis(250);
+}
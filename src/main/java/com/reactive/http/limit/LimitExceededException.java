@@ -0,0 +1,12 @@
+package com.reactive.http.limit;
+
+/**
+ * Reported in the ErrorResponse of calls shed by a client side rate or concurrency limit without sending a request
+ */
+public class LimitExceededException extends Exception {
+
+    public LimitExceededException(String host, String limit) {
+        //Thrown on the shedding path, so the stack trace is not captured
+        super(limit + " limit exceeded for " + host, null, false, false);
+    }
+}
@@ -0,0 +1,39 @@
+package com.reactive.http.limit;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Client side limits of a client, applied per remote host, each stage is disabled when left unset.
+ * <p>
+ * Calls over a limit are queued while fewer than {@link #maxQueueSize} calls wait for the host and a permit is
+ * expected within {@link #maxQueueWait}, and shed otherwise. With the default queue size of 0 excess calls are shed
+ * right away. A shed call yields a result carrying a {@link LimitExceededException} without sending a request.
+ */
+@Value
+@Builder(toBuilder = true)
+public class LimitPolicy {
+
+    /**
+     * Rate limit of every remote host without a host specific entry
+     */
+    RateLimitPolicy rateLimit;
+
+    /**
+     * Rate limits per remote host, keyed by host[:port] exactly as it appears in request urls
+     */
+    @Singular
+    Map<String, RateLimitPolicy> hostRateLimits;
+
+    ConcurrencyLimitPolicy concurrencyLimit;
+
+    @Builder.Default
+    int maxQueueSize = 0;
+
+    @Builder.Default
+    Duration maxQueueWait = Duration.ofSeconds(1);
+}
@@ -0,0 +1,34 @@
+package com.reactive.http.limit;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Point in time snapshot of a {@link RequestLimiter}'s counters
+ */
+@Value
+public class LimitStats {
+    long calls;
+
+    /**
+     * Calls delayed by a rate limit before being sent
+     */
+    long throttled;
+
+    /**
+     * Calls that waited in a host's queue for a concurrency permit
+     */
+    long queued;
+    long shed;
+
+    /**
+     * Current adaptive concurrency limit per host
+     */
+    Map<String, Integer> concurrencyLimits;
+
+    /**
+     * Calls in flight per host, counted by the concurrency limiter
+     */
+    Map<String, Integer> inFlight;
+}
@@ -0,0 +1,18 @@
+package com.reactive.http.limit;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Token bucket refilled at {@link #permitsPerSecond} and holding up to {@link #burst} permits, so a host idle for a
+ * while can take a burst before calls are spaced out at the rate
+ */
+@Value
+@Builder(toBuilder = true)
+public class RateLimitPolicy {
+
+    double permitsPerSecond;
+
+    @Builder.Default
+    int burst = 1;
+}
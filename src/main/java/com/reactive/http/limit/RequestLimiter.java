@@ -0,0 +1,266 @@
+package com.reactive.http.limit;
+
+import com.reactive.http.model.ErrorResponse;
+import com.reactive.http.model.RestApiResult;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per host rate and adaptive concurrency limits wrapped around every request a client sends, see {@link LimitPolicy}.
+ * <p>
+ * A call first takes a token of the host's rate limit, waiting for a reserved one if queueing is allowed, then a permit
+ * of the host's concurrency limit, queueing FIFO for a released one if allowed. The permit is held until the result is
+ * emitted and the call's latency and outcome feed the limit. Calls never signal errors, a shed call yields a result
+ * carrying a {@link LimitExceededException}.
+ * <p>
+ * Streams take a token and a permit the same way, but hold the permit until the stream terminates or is cancelled and
+ * do not feed the limit, since a stream's duration says nothing about the host's latency. A shed stream signals the
+ * {@link LimitExceededException}.
+ */
+public class RequestLimiter {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final LimitPolicy policy;
+    private final long maxQueueWaitNanos;
+    private final ConcurrentMap<String, HostLimiter> hostLimiters = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public RequestLimiter(LimitPolicy policy) {
+        this.policy = policy;
+        this.maxQueueWaitNanos = policy.getMaxQueueSize() > 0 ? policy.getMaxQueueWait().toNanos() : 0;
+    }
+
+    /**
+     * @param host host[:port] the call goes to, limits are tracked per host
+     * @param call supplies the call, only invoked once a token and a permit were taken
+     * @return Mono of the call's result, or of a shed result
+     */
+    public <T> Mono<RestApiResult<T>> execute(String host, Supplier<Mono<RestApiResult<T>>> call) {
+        return Mono.defer(() -> {
+            calls.increment();
+            HostLimiter hostLimiter = hostLimiters.computeIfAbsent(host, HostLimiter::new);
+            Mono<RestApiResult<T>> limited = Mono.defer(() -> concurrencyLimited(hostLimiter, call));
+            if (hostLimiter.tokenBucket == null) {
+                return limited;
+            }
+            long waitNanos = hostLimiter.tokenBucket.reserve(System.nanoTime(), maxQueueWaitNanos);
+            if (waitNanos < 0) {
+                return Mono.just(shedResult(host, "Rate"));
+            }
+            if (waitNanos == 0) {
+                return limited;
+            }
+            throttled.increment();
+            return Mono.delay(Duration.ofNanos(waitNanos)).then(limited);
+        });
+    }
+
+    /**
+     * @param host host[:port] the stream comes from, limits are tracked per host
+     * @param call opens the stream, only invoked once a token and a permit were taken
+     * @return Flux of the stream, signalling a {@link LimitExceededException} if shed
+     */
+    public <T> Flux<T> stream(String host, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            calls.increment();
+            HostLimiter hostLimiter = hostLimiters.computeIfAbsent(host, HostLimiter::new);
+            Flux<T> limited = Flux.defer(() -> concurrencyLimitedStream(hostLimiter, call));
+            if (hostLimiter.tokenBucket == null) {
+                return limited;
+            }
+            long waitNanos = hostLimiter.tokenBucket.reserve(System.nanoTime(), maxQueueWaitNanos);
+            if (waitNanos < 0) {
+                return Flux.error(shed(host, "Rate"));
+            }
+            if (waitNanos == 0) {
+                return limited;
+            }
+            throttled.increment();
+            return Mono.delay(Duration.ofNanos(waitNanos)).thenMany(limited);
+        });
+    }
+
+    public LimitStats stats() {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        Map<String, Integer> inFlight = new LinkedHashMap<>();
+        hostLimiters.forEach((host, hostLimiter) -> {
+            if (hostLimiter.adaptiveLimiter != null) {
+                limits.put(host, hostLimiter.adaptiveLimiter.getLimit());
+                inFlight.put(host, hostLimiter.adaptiveLimiter.inFlight());
+            }
+        });
+        return new LimitStats(calls.sum(), throttled.sum(), queued.sum(), shed.sum(), limits, inFlight);
+    }
+
+    private <T> Mono<RestApiResult<T>> concurrencyLimited(HostLimiter hostLimiter, Supplier<Mono<RestApiResult<T>>> call) {
+        AdaptiveLimiter adaptiveLimiter = hostLimiter.adaptiveLimiter;
+        if (adaptiveLimiter == null) {
+            return call.get();
+        }
+        //Queued calls go first, a new call only takes a free permit directly if nobody is waiting
+        if (hostLimiter.waiters.isEmpty() && adaptiveLimiter.tryAcquire()) {
+            return withPermit(hostLimiter, call);
+        }
+        if (hostLimiter.queueSize.get() >= policy.getMaxQueueSize()) {
+            return Mono.just(shedResult(hostLimiter.host, "Concurrency"));
+        }
+        queued.increment();
+        return Mono.<Boolean>create(sink -> hostLimiter.enqueue(new Waiter(sink, hostLimiter)))
+                .flatMap(granted -> granted ? withPermit(hostLimiter, call) : Mono.just(shedResult(hostLimiter.host, "Concurrency")));
+    }
+
+    private <T> Flux<T> concurrencyLimitedStream(HostLimiter hostLimiter, Supplier<Flux<T>> call) {
+        AdaptiveLimiter adaptiveLimiter = hostLimiter.adaptiveLimiter;
+        if (adaptiveLimiter == null) {
+            return call.get();
+        }
+        if (hostLimiter.waiters.isEmpty() && adaptiveLimiter.tryAcquire()) {
+            return call.get().doFinally(signalType -> hostLimiter.release());
+        }
+        if (hostLimiter.queueSize.get() >= policy.getMaxQueueSize()) {
+            return Flux.error(shed(hostLimiter.host, "Concurrency"));
+        }
+        queued.increment();
+        return Mono.<Boolean>create(sink -> hostLimiter.enqueue(new Waiter(sink, hostLimiter)))
+                .flatMapMany(granted -> granted
+                        ? call.get().doFinally(signalType -> hostLimiter.release())
+                        : Flux.error(shed(hostLimiter.host, "Concurrency")));
+    }
+
+    private <T> Mono<RestApiResult<T>> withPermit(HostLimiter hostLimiter, Supplier<Mono<RestApiResult<T>>> call) {
+        long startNanos = System.nanoTime();
+        return call.get()
+                .doOnNext(result -> {
+                    long nowNanos = System.nanoTime();
+                    hostLimiter.adaptiveLimiter.onComplete(nowNanos - startNanos, outcome(result), nowNanos);
+                })
+                .doFinally(signalType -> hostLimiter.release());
+    }
+
+    /**
+     * 429 and 503 are the host pushing back, transport failures include timeouts of an overloaded host
+     */
+    private static AdaptiveLimiter.Outcome outcome(RestApiResult<?> result) {
+        int statusCode = result.getHttpStatusCode();
+        boolean dropped = statusCode == 429 || statusCode == 503 || (statusCode == 0 && !result.isSuccess());
+        return dropped ? AdaptiveLimiter.Outcome.DROPPED : AdaptiveLimiter.Outcome.SUCCESS;
+    }
+
+    private <T> RestApiResult<T> shedResult(String host, String limit) {
+        return RestApiResult.failure(ErrorResponse.ofException(shed(host, limit)), null);
+    }
+
+    private LimitExceededException shed(String host, String limit) {
+        shed.increment();
+        return new LimitExceededException(host, limit);
+    }
+
+    private final class HostLimiter {
+        private final String host;
+        private final TokenBucket tokenBucket;
+        private final AdaptiveLimiter adaptiveLimiter;
+        private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queueSize = new AtomicInteger();
+
+        private HostLimiter(String host) {
+            this.host = host;
+            RateLimitPolicy rateLimit = policy.getHostRateLimits().getOrDefault(host, policy.getRateLimit());
+            this.tokenBucket = rateLimit != null ? new TokenBucket(rateLimit) : null;
+            this.adaptiveLimiter = policy.getConcurrencyLimit() != null ? new AdaptiveLimiter(policy.getConcurrencyLimit()) : null;
+        }
+
+        private void enqueue(Waiter waiter) {
+            queueSize.incrementAndGet();
+            waiters.offer(waiter);
+            //A permit released while the waiter was being enqueued would otherwise go unnoticed
+            drain();
+        }
+
+        private void release() {
+            adaptiveLimiter.release();
+            drain();
+        }
+
+        /**
+         * Hands free permits to waiters in FIFO order, skipping waiters that timed out or were cancelled
+         */
+        private void drain() {
+            while (!waiters.isEmpty() && adaptiveLimiter.tryAcquire()) {
+                Waiter waiter;
+                boolean granted = false;
+                while (!granted && (waiter = waiters.poll()) != null) {
+                    granted = waiter.grant();
+                }
+                if (!granted) {
+                    adaptiveLimiter.release();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A call waiting for a concurrency permit. Exactly one of grant, expiry and cancellation wins, a permit granted to
+     * a waiter cancelled before it could receive it is released again
+     */
+    private final class Waiter {
+        private final MonoSink<Boolean> sink;
+        private final HostLimiter hostLimiter;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(MonoSink<Boolean> sink, HostLimiter hostLimiter) {
+            this.sink = sink;
+            this.hostLimiter = hostLimiter;
+            Disposable expiry = Schedulers.parallel().schedule(() -> {
+                if (leaveQueue()) {
+                    sink.success(false);
+                }
+            }, maxQueueWaitNanos, TimeUnit.NANOSECONDS);
+            sink.onDispose(expiry);
+            sink.onCancel(() -> {
+                if (!leaveQueue() && state.get() == GRANTED) {
+                    hostLimiter.release();
+                }
+            });
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            hostLimiter.queueSize.decrementAndGet();
+            sink.success(true);
+            return true;
+        }
+
+        private boolean leaveQueue() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            hostLimiter.queueSize.decrementAndGet();
+            return true;
+        }
+    }
+}
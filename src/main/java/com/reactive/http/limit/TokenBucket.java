@@ -0,0 +1,43 @@
+package com.reactive.http.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: a single atomic holds the theoretical
+ * arrival time of the next permit, and a permit is granted if that time is at most burst - 1 intervals ahead of now.
+ * Reserving a permit is one CAS, no refill thread or timestamp bookkeeping is needed.
+ */
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+
+    TokenBucket(RateLimitPolicy policy) {
+        if (policy.getPermitsPerSecond() <= 0 || policy.getBurst() < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / policy.getPermitsPerSecond()));
+        this.toleranceNanos = intervalNanos * (policy.getBurst() - 1);
+    }
+
+    /**
+     * @param maxWaitNanos longest acceptable wait for a permit, 0 to only take an immediately available one
+     * @return 0 if a permit was taken now, the nanos to wait for the permit reserved, or -1 if no permit is available
+     * within the wait, in which case nothing was reserved
+     */
+    long reserve(long nowNanos, long maxWaitNanos) {
+        while (true) {
+            long theoreticalArrival = theoreticalArrivalNanos.get();
+            long start = theoreticalArrival - nowNanos > 0 ? theoreticalArrival : nowNanos;
+            long waitNanos = start - toleranceNanos - nowNanos;
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(theoreticalArrival, start + intervalNanos)) {
+                return Math.max(0, waitNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.reactive.http.metrics;
+
+/**
+ * Receives the measurements of a {@code RestClientManager}, see {@code RestClientManager.Config#metrics}.
+ * <p>
+ * Every method defaults to a no-op so implementations only override what they export. Methods are called on Netty
+ * event loop threads and must neither block nor throw. Durations are in nanoseconds so nothing is allocated per call.
+ * Calls are tagged with the host[:port] of their url, connection level measurements with the host:port of the remote
+ * address, which always carries the port.
+ *
+ * @see MicrometerClientMetrics
+ */
+public interface ClientMetrics {
+
+    ClientMetrics NOOP = new ClientMetrics() {
+    };
+
+    /**
+     * A call completed, from subscription until the result was populated
+     *
+     * @param statusCode HTTP status of the response, 0 if no response was received
+     */
+    default void recordRequest(String host, String method, int statusCode, long latencyNanos) {
+    }
+
+    /**
+     * Time from subscription until the response status and headers were received, including pool acquisition,
+     * connect, TLS and sending the request
+     */
+    default void recordTimeToFirstByte(String host, String method, long nanos) {
+    }
+
+    /**
+     * Time from receiving the response headers until the last body byte was received
+     */
+    default void recordBodyReceiveTime(String host, String method, long nanos) {
+    }
+
+    /**
+     * Time spent decoding the body on the event loop, the sum over all chunks of a response
+     */
+    default void recordDeserializeTime(String host, String method, long nanos) {
+    }
+
+    default void recordConnectTime(String remoteAddress, long nanos, boolean success) {
+    }
+
+    default void recordTlsHandshakeTime(String remoteAddress, long nanos, boolean success) {
+    }
+
+    default void recordBytesSent(String remoteAddress, long bytes) {
+    }
+
+    default void recordBytesReceived(String remoteAddress, long bytes) {
+    }
+
+    /**
+     * A connection pool for a remote address was created, the gauges read its live state
+     */
+    default void registerPool(String poolName, String remoteAddress, PoolGauges gauges) {
+    }
+
+    default void deregisterPool(String poolName, String remoteAddress) {
+    }
+}
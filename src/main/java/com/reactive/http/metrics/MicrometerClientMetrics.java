@@ -0,0 +1,214 @@
+package com.reactive.http.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Exports the client measurements to a Micrometer {@link MeterRegistry}, which requires micrometer-core on the
+ * classpath. Latencies are Timers publishing percentile histograms, so percentiles can be aggregated across instances.
+ * <p>
+ * Meters are resolved once per host and method, or per remote address, and cached under the strings the client passes
+ * in, with request timers indexed by status code. Recording neither consults the registry nor allocates, except for
+ * status codes outside 0-599.
+ */
+public class MicrometerClientMetrics implements ClientMetrics {
+
+    public static final String REQUESTS = "http.client.requests";
+    public static final String TIME_TO_FIRST_BYTE = "http.client.time.to.first.byte";
+    public static final String BODY_RECEIVE = "http.client.body.receive";
+    public static final String DESERIALIZE = "http.client.deserialize";
+    public static final String CONNECT = "http.client.connect";
+    public static final String TLS_HANDSHAKE = "http.client.tls.handshake";
+    public static final String BYTES_SENT = "http.client.bytes.sent";
+    public static final String BYTES_RECEIVED = "http.client.bytes.received";
+    public static final String POOL_ACTIVE = "http.client.pool.active";
+    public static final String POOL_IDLE = "http.client.pool.idle";
+    public static final String POOL_PENDING = "http.client.pool.pending";
+    public static final String POOL_MAX = "http.client.pool.max";
+
+    private static final int STATUS_CODES = 600;
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, ConcurrentMap<String, CallMeters>> callMeters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RemoteMeters> remoteMeters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<PoolKey, List<Meter>> poolGauges = new ConcurrentHashMap<>();
+
+    public MicrometerClientMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordRequest(String host, String method, int statusCode, long latencyNanos) {
+        callMeters(host, method).requests(statusCode).record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordTimeToFirstByte(String host, String method, long nanos) {
+        callMeters(host, method).timeToFirstByte.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBodyReceiveTime(String host, String method, long nanos) {
+        callMeters(host, method).bodyReceive.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordDeserializeTime(String host, String method, long nanos) {
+        callMeters(host, method).deserialize.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordConnectTime(String remoteAddress, long nanos, boolean success) {
+        remoteMeters(remoteAddress).connect(success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordTlsHandshakeTime(String remoteAddress, long nanos, boolean success) {
+        remoteMeters(remoteAddress).tlsHandshake(success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBytesSent(String remoteAddress, long bytes) {
+        remoteMeters(remoteAddress).bytesSent.record(bytes);
+    }
+
+    @Override
+    public void recordBytesReceived(String remoteAddress, long bytes) {
+        remoteMeters(remoteAddress).bytesReceived.record(bytes);
+    }
+
+    @Override
+    public void registerPool(String poolName, String remoteAddress, PoolGauges gauges) {
+        Tags tags = Tags.of("pool", poolName, "remote.address", remoteAddress);
+        poolGauges.computeIfAbsent(new PoolKey(poolName, remoteAddress), key -> List.of(
+                Gauge.builder(POOL_ACTIVE, gauges, PoolGauges::activeConnections).tags(tags).strongReference(true).register(registry),
+                Gauge.builder(POOL_IDLE, gauges, PoolGauges::idleConnections).tags(tags).strongReference(true).register(registry),
+                Gauge.builder(POOL_PENDING, gauges, PoolGauges::pendingAcquires).tags(tags).strongReference(true).register(registry),
+                Gauge.builder(POOL_MAX, gauges, PoolGauges::maxConnections).tags(tags).strongReference(true).register(registry)));
+    }
+
+    @Override
+    public void deregisterPool(String poolName, String remoteAddress) {
+        List<Meter> meters = poolGauges.remove(new PoolKey(poolName, remoteAddress));
+        if (meters != null) {
+            meters.forEach(registry::remove);
+        }
+    }
+
+    private CallMeters callMeters(String host, String method) {
+        ConcurrentMap<String, CallMeters> hostMeters = callMeters.get(host);
+        if (hostMeters == null) {
+            hostMeters = callMeters.computeIfAbsent(host, h -> new ConcurrentHashMap<>());
+        }
+        CallMeters meters = hostMeters.get(method);
+        if (meters == null) {
+            meters = hostMeters.computeIfAbsent(method, m -> new CallMeters(Tags.of("host", host, "method", m)));
+        }
+        return meters;
+    }
+
+    private RemoteMeters remoteMeters(String remoteAddress) {
+        RemoteMeters meters = remoteMeters.get(remoteAddress);
+        if (meters == null) {
+            meters = remoteMeters.computeIfAbsent(remoteAddress, address -> new RemoteMeters(Tags.of("remote.address", address)));
+        }
+        return meters;
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, Tags tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Meters of the calls of one method to one host. Request timers are registered on first use of a status, the
+     * registry returns the same meter for the same tags, so threads racing to register one is harmless
+     */
+    private final class CallMeters {
+        private final Tags tags;
+        private final Timer timeToFirstByte;
+        private final Timer bodyReceive;
+        private final Timer deserialize;
+        private final AtomicReferenceArray<Timer> requests = new AtomicReferenceArray<>(STATUS_CODES);
+
+        private CallMeters(Tags tags) {
+            this.tags = tags;
+            this.timeToFirstByte = timer(TIME_TO_FIRST_BYTE, tags);
+            this.bodyReceive = timer(BODY_RECEIVE, tags);
+            this.deserialize = timer(DESERIALIZE, tags);
+        }
+
+        private Timer requests(int statusCode) {
+            if (statusCode < 0 || statusCode >= STATUS_CODES) {
+                return timer(REQUESTS, tags.and("status", Integer.toString(statusCode)));
+            }
+            Timer timer = requests.get(statusCode);
+            if (timer == null) {
+                timer = timer(REQUESTS, tags.and("status", statusCode == 0 ? "IO_ERROR" : Integer.toString(statusCode)));
+                requests.set(statusCode, timer);
+            }
+            return timer;
+        }
+    }
+
+    /**
+     * Connection level meters of one remote address, connect and handshake timers per outcome are registered on first use
+     */
+    private final class RemoteMeters {
+        private final Tags tags;
+        private final DistributionSummary bytesSent;
+        private final DistributionSummary bytesReceived;
+        private final AtomicReferenceArray<Timer> connect = new AtomicReferenceArray<>(2);
+        private final AtomicReferenceArray<Timer> tlsHandshake = new AtomicReferenceArray<>(2);
+
+        private RemoteMeters(Tags tags) {
+            this.tags = tags;
+            this.bytesSent = summary(BYTES_SENT, tags);
+            this.bytesReceived = summary(BYTES_RECEIVED, tags);
+        }
+
+        private Timer connect(boolean success) {
+            return outcomeTimer(connect, CONNECT, success);
+        }
+
+        private Timer tlsHandshake(boolean success) {
+            return outcomeTimer(tlsHandshake, TLS_HANDSHAKE, success);
+        }
+
+        private Timer outcomeTimer(AtomicReferenceArray<Timer> timers, String name, boolean success) {
+            int index = success ? 0 : 1;
+            Timer timer = timers.get(index);
+            if (timer == null) {
+                timer = timer(name, tags.and("outcome", success ? "SUCCESS" : "ERROR"));
+                timers.set(index, timer);
+            }
+            return timer;
+        }
+    }
+
+    @Value
+    private static class PoolKey {
+        String poolName;
+        String remoteAddress;
+    }
+}
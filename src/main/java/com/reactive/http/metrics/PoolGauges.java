@@ -0,0 +1,24 @@
+package com.reactive.http.metrics;
+
+/**
+ * Live view of a connection pool, every call reads the current value
+ */
+public interface PoolGauges {
+
+    /**
+     * @return connections currently acquired by a request
+     */
+    int activeConnections();
+
+    /**
+     * @return open connections waiting in the pool
+     */
+    int idleConnections();
+
+    /**
+     * @return requests waiting for a connection
+     */
+    int pendingAcquires();
+
+    int maxConnections();
+}
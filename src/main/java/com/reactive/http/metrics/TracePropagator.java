@@ -0,0 +1,41 @@
+package com.reactive.http.metrics;
+
+import reactor.util.context.ContextView;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Adds trace context headers to every request, see {@code RestClientManager.Config#tracePropagator}.
+ * <p>
+ * The context is the Reactor Context of the subscriber of the call, which is where reactive tracing integrations keep
+ * the current span. Implementations bridging a tracer, e.g. a Micrometer Tracing or OpenTelemetry propagator, read the
+ * span from it and write their headers through the setter.
+ */
+@FunctionalInterface
+public interface TracePropagator {
+
+    /**
+     * @param context      Reactor Context of the call
+     * @param headerSetter sets a request header
+     */
+    void inject(ContextView context, BiConsumer<String, String> headerSetter);
+
+    /**
+     * Copies String entries of the Reactor Context to headers of the same name, e.g.
+     * {@code fromContext("traceparent", "tracestate")} for W3C Trace Context put there by the caller with
+     * {@code contextWrite(Context.of("traceparent", traceparent))}
+     *
+     * @param keys context keys, used as header names
+     */
+    static TracePropagator fromContext(String... keys) {
+        String[] headerNames = keys.clone();
+        return (context, headerSetter) -> {
+            for (String headerName : headerNames) {
+                Object value = context.getOrDefault(headerName, null);
+                if (value instanceof String) {
+                    headerSetter.accept(headerName, (String) value);
+                }
+            }
+        };
+    }
+}
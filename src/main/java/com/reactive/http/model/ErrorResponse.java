@@ -1,19 +1,54 @@
 package com.reactive.http.model;
 
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.codec.http.HttpStatusClass;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import reactor.netty.http.client.HttpClientResponse;
+import lombok.Builder;
+import lombok.Value;
+import reactor.core.Exceptions;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
+/**
+ * Why a call failed: either an error status, with the response headers, or an exception when no usable response was
+ * received or the body could not be decoded
+ */
+@Value
+@Builder(toBuilder = true)
 public class ErrorResponse {
-    private String errorCode;
-    private String errorDescription;
-    private HttpResponseStatus httpStatus;
-    private HttpClientResponse clientResponse;
-    private Exception exception;
+    String errorCode;
+    String errorDescription;
+    HttpResponseStatus httpStatus;
+    HttpHeaders responseHeaders;
+    Exception exception;
+
+    /**
+     * Start of the body of an error status response, as text. Null for an empty body or an exception
+     */
+    String responseBody;
+
+    /**
+     * @param httpStatus      status of the response
+     * @param responseHeaders headers of the response
+     * @param description     description of the failure
+     */
+    public static ErrorResponse ofStatus(HttpResponseStatus httpStatus, HttpHeaders responseHeaders, String description) {
+        return ofStatus(httpStatus, responseHeaders, description, null);
+    }
+
+    /**
+     * @param httpStatus      status of the response
+     * @param responseHeaders headers of the response
+     * @param description     description of the failure
+     * @param responseBody    start of the response body, null if empty
+     */
+    public static ErrorResponse ofStatus(HttpResponseStatus httpStatus, HttpHeaders responseHeaders, String description, String responseBody) {
+        return new ErrorResponse(null, description, httpStatus, responseHeaders, null, responseBody);
+    }
+
+    /**
+     * @param throwable cause of the failure, unwrapped if it was propagated through the reactive pipeline
+     */
+    public static ErrorResponse ofException(Throwable throwable) {
+        Throwable cause = Exceptions.unwrap(throwable);
+        return new ErrorResponse(null, cause.getMessage(), null, null,
+                cause instanceof Exception ? (Exception) cause : new Exception(cause), null);
+    }
 }
@@ -0,0 +1,27 @@
+package com.reactive.http.model;
+
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.Value;
+import reactor.netty.http.client.HttpClientResponse;
+
+/**
+ * Snapshot of the request and response metadata of an exchange, taken when the response headers arrive.
+ * <p>
+ * Only holds references to values the exchange already produced, never the connection bound
+ * {@link HttpClientResponse}, so a result kept around does not keep Netty objects reachable.
+ */
+@Value
+public class ResponseMetadata {
+    String requestPath;
+    HttpMethod httpMethod;
+    HttpHeaders requestHeaders;
+    HttpResponseStatus httpResponseStatus;
+    HttpHeaders responseHeaders;
+
+    public static ResponseMetadata of(HttpClientResponse httpClientResponse) {
+        return new ResponseMetadata(httpClientResponse.fullPath(), httpClientResponse.method(), httpClientResponse.requestHeaders(),
+                httpClientResponse.status(), httpClientResponse.responseHeaders());
+    }
+}
@@ -0,0 +1,27 @@
+package com.reactive.http.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Outcome of one call of a batch, carrying the url it was requested with so results arriving in completion order can
+ * be matched to their urls, failures without a response included
+ *
+ * @param <T> type of the successResult
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class RestApiBatchResult<T> extends RestApiResult<T> {
+
+    /**
+     * Url exactly as it was passed to the batch
+     */
+    private final String url;
+
+    public RestApiBatchResult(String url, RestApiResult<T> result) {
+        super(result.getSuccessResult(), result.getErrorResponse(), result.getMetadata());
+        this.url = url;
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactive.http.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a call returning a JSON array, the deserialized elements are available in {@link #getSuccessResults()}
+ *
+ * @param <T> type of the elements
+ */
+public class RestApiListResult<T> extends RestApiResult<List<T>> {
+
+    public RestApiListResult(RestApiResult<List<T>> result) {
+        super(result.getSuccessResult(), result.getErrorResponse(), result.getMetadata());
+    }
+
+    /**
+     * @return the deserialized elements, null unless the call succeeded with a non-empty body
+     */
+    public List<T> getSuccessResults() {
+        return getSuccessResult();
+    }
+}
@@ -1,31 +1,79 @@
 package com.reactive.http.model;
 
-
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClientResponse;
-
-import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+/**
+ * Immutable outcome of a call: the deserialized successResult or an ErrorResponse, and the metadata of the exchange.
+ * <p>
+ * Successful results carry no ErrorResponse at all, so the success path allocates nothing for errors. Metadata is null
+ * if no response was received. Results may be shared, e.g. by coalesced or cached GETs, which is safe as long as the
+ * successResult is treated as read-only.
+ *
+ * @param <T> type of the successResult
+ * @see RestApiListResult
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
 public class RestApiResult<T> {
-    private T successResult;
-    private List<T> successResults;
-    private ErrorResponse errorResponse;
-    private boolean success;
-    private boolean isMultiple;
-    private String requestPath;
-    private HttpHeaders headers;
-    private HttpMethod httpMethod;
-    private HttpClientResponse clientResponse;
-    private HttpResponseStatus httpResponseStatus;
-    private int httpStatusCode;
-}
+    private final T successResult;
+    private final ErrorResponse errorResponse;
+    private final ResponseMetadata metadata;
+
+    protected RestApiResult(T successResult, ErrorResponse errorResponse, ResponseMetadata metadata) {
+        this.successResult = successResult;
+        this.errorResponse = errorResponse;
+        this.metadata = metadata;
+    }
+
+    /**
+     * @param successResult deserialized body, null for an empty body
+     * @param metadata      metadata of the exchange
+     */
+    public static <T> RestApiResult<T> success(T successResult, ResponseMetadata metadata) {
+        return new RestApiResult<>(successResult, null, metadata);
+    }
+
+    /**
+     * @param errorResponse why the call failed
+     * @param metadata      metadata of the exchange, null if no response was received
+     */
+    public static <T> RestApiResult<T> failure(ErrorResponse errorResponse, ResponseMetadata metadata) {
+        return new RestApiResult<>(null, errorResponse, metadata);
+    }
 
+    public boolean isSuccess() {
+        return errorResponse == null;
+    }
+
+    public String getRequestPath() {
+        return metadata != null ? metadata.getRequestPath() : null;
+    }
+
+    public HttpMethod getHttpMethod() {
+        return metadata != null ? metadata.getHttpMethod() : null;
+    }
+
+    /**
+     * @return headers of the request
+     */
+    public HttpHeaders getHeaders() {
+        return metadata != null ? metadata.getRequestHeaders() : null;
+    }
+
+    public HttpResponseStatus getHttpResponseStatus() {
+        return metadata != null ? metadata.getHttpResponseStatus() : null;
+    }
+
+    /**
+     * @return status code of the response, 0 if no response was received
+     */
+    public int getHttpStatusCode() {
+        return metadata != null ? metadata.getHttpResponseStatus().code() : 0;
+    }
+}
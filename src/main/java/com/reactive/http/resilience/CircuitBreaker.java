@@ -0,0 +1,136 @@
+package com.reactive.http.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per host circuit breaker, see {@link CircuitBreakerPolicy}.
+ * <p>
+ * Outcomes are counted in time buckets covering the policy's window, each bucket is lazily reset by the first call
+ * landing in it after the window moved on. All state is kept in atomics so recording stays lock-free.
+ */
+class CircuitBreaker {
+
+    private static final int BUCKETS = 10;
+
+    enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final CircuitBreakerPolicy policy;
+    private final long bucketNanos;
+
+    //Per bucket: epoch the bucket belongs to, calls and failures counted in it
+    private final AtomicLongArray bucketEpochs = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray bucketCalls = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray bucketFailures = new AtomicLongArray(BUCKETS);
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAtNanos;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    CircuitBreaker(CircuitBreakerPolicy policy) {
+        this.policy = policy;
+        this.bucketNanos = Math.max(1, policy.getWindow().toNanos() / BUCKETS);
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return true if a call may be made, which must then be reported through {@link #onResult(boolean)} or
+     * {@link #onCancel()}
+     */
+    boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < policy.getOpenDuration().toNanos()) {
+                return false;
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                halfOpenPermits.set(policy.getHalfOpenCalls());
+                halfOpenSuccesses.set(0);
+            }
+        }
+        //Half open, only a limited number of trial calls get through
+        return state.get() != State.OPEN && halfOpenPermits.getAndDecrement() > 0;
+    }
+
+    void onResult(boolean failure) {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            if (failure) {
+                open(State.HALF_OPEN);
+            } else if (halfOpenSuccesses.incrementAndGet() >= policy.getHalfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        if (current == State.OPEN) {
+            return;
+        }
+
+        long nowNanos = System.nanoTime();
+        int bucket = currentBucket(nowNanos);
+        bucketCalls.incrementAndGet(bucket);
+        if (failure) {
+            bucketFailures.incrementAndGet(bucket);
+            evaluate(nowNanos);
+        }
+    }
+
+    /**
+     * A cancelled call returns its half open permit, it says nothing about the host's health
+     */
+    void onCancel() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    private void evaluate(long nowNanos) {
+        long epoch = nowNanos / bucketNanos;
+        long calls = 0;
+        long failures = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (epoch - bucketEpochs.get(i) < BUCKETS) {
+                calls += bucketCalls.get(i);
+                failures += bucketFailures.get(i);
+            }
+        }
+        if (calls >= policy.getMinimumCalls() && failures >= calls * policy.getFailureRateThreshold()) {
+            open(State.CLOSED);
+        }
+    }
+
+    private int currentBucket(long nowNanos) {
+        long epoch = nowNanos / bucketNanos;
+        int bucket = (int) Math.floorMod(epoch, (long) BUCKETS);
+        long bucketEpoch = bucketEpochs.get(bucket);
+        if (bucketEpoch != epoch && bucketEpochs.compareAndSet(bucket, bucketEpoch, epoch)) {
+            //Racing calls may still count into the previous epoch, which only skews the rate marginally
+            bucketCalls.set(bucket, 0);
+            bucketFailures.set(bucket, 0);
+        }
+        return bucket;
+    }
+
+    private void open(State from) {
+        //Published before the transition, so no caller sees OPEN with a stale opening time
+        openedAtNanos = System.nanoTime();
+        state.compareAndSet(from, State.OPEN);
+    }
+
+    private void close() {
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            for (int i = 0; i < BUCKETS; i++) {
+                bucketCalls.set(i, 0);
+                bucketFailures.set(i, 0);
+            }
+        }
+    }
+}
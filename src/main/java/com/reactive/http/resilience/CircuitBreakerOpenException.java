@@ -0,0 +1,12 @@
+package com.reactive.http.resilience;
+
+/**
+ * Reported in the ErrorResponse of calls rejected without a request because the host's circuit breaker is open
+ */
+public class CircuitBreakerOpenException extends Exception {
+
+    public CircuitBreakerOpenException(String host) {
+        //Thrown on the fail fast path, so the stack trace is not captured
+        super("Circuit breaker open for " + host, null, false, false);
+    }
+}
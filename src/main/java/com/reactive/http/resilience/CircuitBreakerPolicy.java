@@ -0,0 +1,40 @@
+package com.reactive.http.resilience;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker settings of a {@link ResiliencePipeline}, applied per host.
+ * <p>
+ * The breaker opens once at least {@link #minimumCalls} calls were made within the {@link #window} and at least
+ * {@link #failureRateThreshold} of them failed. Transport failures and 5xx responses count as failures. While open,
+ * calls fail fast without a request. After {@link #openDuration} a few trial calls are let through, which close the
+ * breaker if they all succeed and open it again otherwise.
+ */
+@Value
+@Builder(toBuilder = true)
+public class CircuitBreakerPolicy {
+
+    @Builder.Default
+    double failureRateThreshold = 0.5;
+
+    @Builder.Default
+    int minimumCalls = 20;
+
+    /**
+     * Sliding window the failure rate is computed over
+     */
+    @Builder.Default
+    Duration window = Duration.ofSeconds(10);
+
+    @Builder.Default
+    Duration openDuration = Duration.ofSeconds(5);
+
+    /**
+     * Trial calls let through once the open duration has elapsed
+     */
+    @Builder.Default
+    int halfOpenCalls = 3;
+}
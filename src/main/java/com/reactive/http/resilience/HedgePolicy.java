@@ -0,0 +1,42 @@
+package com.reactive.http.resilience;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Hedging settings of a {@link ResiliencePipeline}.
+ * <p>
+ * When an idempotent call has not answered within the {@link #percentile} latency of recent calls to the same host, a
+ * second attempt is sent and whichever answers first wins, the other one is cancelled. Hedging at p95 costs about 5%
+ * extra load and cuts the tail caused by a single slow replica or connection.
+ */
+@Value
+@Builder(toBuilder = true)
+public class HedgePolicy {
+
+    /**
+     * Latency percentile of recent calls after which the hedge is sent
+     */
+    @Builder.Default
+    double percentile = 0.95;
+
+    /**
+     * Lower bound of the hedge delay, so a very fast host does not get every call doubled
+     */
+    @Builder.Default
+    Duration minDelay = Duration.ofMillis(5);
+
+    /**
+     * Upper bound of the hedge delay, also used until enough latencies are recorded for the percentile
+     */
+    @Builder.Default
+    Duration maxDelay = Duration.ofSeconds(1);
+
+    /**
+     * Number of recorded latencies required before the percentile is trusted
+     */
+    @Builder.Default
+    int minSamples = 100;
+}
@@ -0,0 +1,54 @@
+package com.reactive.http.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the latencies of the most recent calls to a host in a lock-free ring and derives a latency percentile from
+ * them. The percentile is recomputed every {@link #RECOMPUTE_INTERVAL} recordings rather than per call, since it only
+ * needs to follow the latency distribution, not individual calls.
+ */
+class LatencyTracker {
+
+    private static final int CAPACITY = 1024;
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final double percentile;
+    private final AtomicLongArray latenciesNanos = new AtomicLongArray(CAPACITY);
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long percentileNanos = -1;
+
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long latencyNanos) {
+        long count = recorded.getAndIncrement();
+        latenciesNanos.set((int) (count % CAPACITY), latencyNanos);
+        if (count % RECOMPUTE_INTERVAL == RECOMPUTE_INTERVAL - 1) {
+            percentileNanos = computePercentile((int) Math.min(count + 1, CAPACITY));
+        }
+    }
+
+    int sampleCount() {
+        return (int) Math.min(recorded.get(), CAPACITY);
+    }
+
+    /**
+     * @return the latency percentile of recent calls, -1 until computed for the first time
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private long computePercentile(int samples) {
+        long[] snapshot = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            snapshot[i] = latenciesNanos.get(i);
+        }
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(percentile * samples) - 1;
+        return snapshot[Math.max(0, Math.min(samples - 1, index))];
+    }
+}
@@ -0,0 +1,231 @@
+package com.reactive.http.resilience;
+
+import com.reactive.http.limit.LimitExceededException;
+import com.reactive.http.model.ErrorResponse;
+import com.reactive.http.model.RestApiResult;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Composable resilience stage wrapped around every call of a client: retries with jittered exponential backoff and a
+ * retry budget, hedged requests and a per host circuit breaker, see {@link ResiliencePolicy}.
+ * <p>
+ * The stages nest as retry(hedge(circuitBreaker(call))): every attempt, hedges included, asks the breaker for
+ * permission and reports its outcome, and a hedged attempt is retried as a whole. Calls never signal errors, failures
+ * are read from the RestApiResult and a rejected call yields a result carrying a {@link CircuitBreakerOpenException}.
+ */
+public class ResiliencePipeline {
+
+    private final RetryPolicy retryPolicy;
+    private final HedgePolicy hedgePolicy;
+    private final CircuitBreakerPolicy circuitBreakerPolicy;
+    private final RetryBudget retryBudget;
+    private final ConcurrentMap<String, HostState> hostStates = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDeniedByBudget = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+
+    public ResiliencePipeline(ResiliencePolicy policy) {
+        this.retryPolicy = policy.getRetry();
+        this.hedgePolicy = policy.getHedge();
+        this.circuitBreakerPolicy = policy.getCircuitBreaker();
+        this.retryBudget = retryPolicy != null ? new RetryBudget(retryPolicy.getBudgetRatio(), retryPolicy.getMaxRetryBurst()) : null;
+    }
+
+    /**
+     * @param host       host:port the call goes to, breakers and latencies are tracked per host
+     * @param idempotent whether the call may be repeated without side effects, only idempotent calls are hedged and
+     *                   retried after the request may have been sent
+     * @param call       supplies one attempt of the call
+     * @return Mono of the result of the first successful attempt, or of the last attempt made
+     */
+    public <T> Mono<RestApiResult<T>> execute(String host, boolean idempotent, Supplier<Mono<RestApiResult<T>>> call) {
+        HostState hostState = hostStates.computeIfAbsent(host, HostState::new);
+        Supplier<Mono<RestApiResult<T>>> guarded = () -> guarded(hostState, call);
+        Supplier<Mono<RestApiResult<T>>> attempt = idempotent && hedgePolicy != null ? () -> hedged(hostState, guarded) : guarded;
+        return Mono.defer(() -> {
+            calls.increment();
+            if (retryBudget != null) {
+                retryBudget.deposit();
+            }
+            return withRetries(attempt, idempotent, 0);
+        });
+    }
+
+    public ResilienceStats stats() {
+        Map<String, String> breakerStates = new LinkedHashMap<>();
+        Map<String, Double> hedgeDelays = new LinkedHashMap<>();
+        hostStates.forEach((host, hostState) -> {
+            if (hostState.circuitBreaker != null) {
+                breakerStates.put(host, hostState.circuitBreaker.getState().name());
+            }
+            if (hostState.latencyTracker != null) {
+                hedgeDelays.put(host, hedgeDelay(hostState).toNanos() / 1_000_000d);
+            }
+        });
+        return new ResilienceStats(calls.sum(), retries.sum(), retriesDeniedByBudget.sum(), hedgesSent.sum(), hedgesWon.sum(),
+                shortCircuited.sum(), breakerStates, hedgeDelays);
+    }
+
+    private <T> Mono<RestApiResult<T>> withRetries(Supplier<Mono<RestApiResult<T>>> attempt, boolean idempotent, int retry) {
+        Mono<RestApiResult<T>> result = attempt.get();
+        if (retryPolicy == null) {
+            return result;
+        }
+        return result.flatMap(restApiResult -> {
+            if (retry >= retryPolicy.getMaxRetries() || !isRetryable(restApiResult, idempotent)) {
+                return Mono.just(restApiResult);
+            }
+            if (!retryBudget.tryWithdraw()) {
+                retriesDeniedByBudget.increment();
+                return Mono.just(restApiResult);
+            }
+            retries.increment();
+            return Mono.delay(backoff(retry)).then(withRetries(attempt, idempotent, retry + 1));
+        });
+    }
+
+    /**
+     * Sends a second attempt once the first has been outstanding for the host's latency percentile, the first result
+     * wins and the other attempt is cancelled
+     */
+    private <T> Mono<RestApiResult<T>> hedged(HostState hostState, Supplier<Mono<RestApiResult<T>>> attempt) {
+        return Mono.defer(() -> {
+            Mono<HedgedResult<T>> primary = attempt.get().map(result -> new HedgedResult<>(result, false));
+            Mono<HedgedResult<T>> hedge = Mono.delay(hedgeDelay(hostState))
+                    .then(Mono.defer(() -> {
+                        hedgesSent.increment();
+                        return attempt.get();
+                    }))
+                    .map(result -> new HedgedResult<>(result, true));
+            return Mono.firstWithValue(primary, hedge)
+                    .map(hedgedResult -> {
+                        if (hedgedResult.hedge) {
+                            hedgesWon.increment();
+                        }
+                        return hedgedResult.result;
+                    });
+        });
+    }
+
+    private <T> Mono<RestApiResult<T>> guarded(HostState hostState, Supplier<Mono<RestApiResult<T>>> call) {
+        return Mono.defer(() -> {
+            CircuitBreaker circuitBreaker = hostState.circuitBreaker;
+            if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+                shortCircuited.increment();
+                return Mono.just(shortCircuitedResult(hostState.host));
+            }
+            long startNanos = System.nanoTime();
+            return call.get()
+                    .doOnNext(result -> {
+                        boolean failure = isFailure(result);
+                        if (circuitBreaker != null) {
+                            circuitBreaker.onResult(failure);
+                        }
+                        if (!failure && hostState.latencyTracker != null) {
+                            hostState.latencyTracker.record(System.nanoTime() - startNanos);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (circuitBreaker != null) {
+                            circuitBreaker.onCancel();
+                        }
+                    });
+        });
+    }
+
+    private Duration hedgeDelay(HostState hostState) {
+        long percentileNanos = hostState.latencyTracker.percentileNanos();
+        if (percentileNanos < 0 || hostState.latencyTracker.sampleCount() < hedgePolicy.getMinSamples()) {
+            return hedgePolicy.getMaxDelay();
+        }
+        long delayNanos = Math.max(hedgePolicy.getMinDelay().toNanos(), Math.min(hedgePolicy.getMaxDelay().toNanos(), percentileNanos));
+        return Duration.ofNanos(delayNanos);
+    }
+
+    private Duration backoff(int retry) {
+        long initialNanos = retryPolicy.getInitialBackoff().toNanos();
+        long maxNanos = retryPolicy.getMaxBackoff().toNanos();
+        long exponentialNanos = Math.min(maxNanos, initialNanos << Math.min(retry, 30));
+        double jitterFactor = 1 - retryPolicy.getJitter() * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofNanos((long) (exponentialNanos * jitterFactor));
+    }
+
+    private boolean isRetryable(RestApiResult<?> result, boolean idempotent) {
+        if (result.isSuccess()) {
+            return false;
+        }
+        Exception exception = result.getErrorResponse() != null ? result.getErrorResponse().getException() : null;
+        if (exception instanceof CircuitBreakerOpenException || exception instanceof LimitExceededException) {
+            //Retrying a call rejected on purpose would only add to the load it was rejected for
+            return false;
+        }
+        if (result.getHttpStatusCode() == 0) {
+            //No response: idempotent calls may always be repeated, others only if the request was never sent
+            return idempotent || isConnectFailure(exception);
+        }
+        return idempotent && retryPolicy.isRetryableStatus(result.getHttpStatusCode());
+    }
+
+    /**
+     * Transport failures and 5xx responses count against the host's health, 4xx responses are the caller's problem and
+     * calls shed by a client side limit never reached the host
+     */
+    private static boolean isFailure(RestApiResult<?> result) {
+        if (result.isSuccess()) {
+            return false;
+        }
+        if (result.getHttpStatusCode() == 0) {
+            return !(result.getErrorResponse().getException() instanceof LimitExceededException);
+        }
+        return result.getHttpStatusCode() >= 500;
+    }
+
+    private static boolean isConnectFailure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> RestApiResult<T> shortCircuitedResult(String host) {
+        return RestApiResult.failure(ErrorResponse.ofException(new CircuitBreakerOpenException(host)), null);
+    }
+
+    private final class HostState {
+        private final String host;
+        private final CircuitBreaker circuitBreaker;
+        private final LatencyTracker latencyTracker;
+
+        private HostState(String host) {
+            this.host = host;
+            this.circuitBreaker = circuitBreakerPolicy != null ? new CircuitBreaker(circuitBreakerPolicy) : null;
+            this.latencyTracker = hedgePolicy != null ? new LatencyTracker(hedgePolicy.getPercentile()) : null;
+        }
+    }
+
+    private static final class HedgedResult<T> {
+        private final RestApiResult<T> result;
+        private final boolean hedge;
+
+        private HedgedResult(RestApiResult<T> result, boolean hedge) {
+            this.result = result;
+            this.hedge = hedge;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.reactive.http.resilience;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Resilience settings of a client, each stage is disabled when left unset
+ */
+@Value
+@Builder(toBuilder = true)
+public class ResiliencePolicy {
+    RetryPolicy retry;
+    HedgePolicy hedge;
+    CircuitBreakerPolicy circuitBreaker;
+}
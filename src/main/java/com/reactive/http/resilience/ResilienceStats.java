@@ -0,0 +1,28 @@
+package com.reactive.http.resilience;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Point in time snapshot of a {@link ResiliencePipeline}'s counters
+ */
+@Value
+public class ResilienceStats {
+    long calls;
+    long retries;
+    long retriesDeniedByBudget;
+    long hedgesSent;
+    long hedgesWon;
+    long shortCircuited;
+
+    /**
+     * Circuit breaker state per host, CLOSED, OPEN or HALF_OPEN
+     */
+    Map<String, String> circuitBreakerStates;
+
+    /**
+     * Current hedge delay per host in milliseconds, derived from the configured latency percentile
+     */
+    Map<String, Double> hedgeDelaysMillis;
+}
@@ -0,0 +1,43 @@
+package com.reactive.http.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket limiting retries to a fraction of the calls made, so retries cannot multiply the load on an
+ * upstream that is already failing. Balances are kept in thousandths of a token.
+ */
+class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxRetryBurst) {
+        this.depositPerCall = Math.round(ratio * SCALE);
+        this.maxBalance = Math.max(maxRetryBurst, 1) * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerCall)));
+    }
+
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.reactive.http.resilience;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Retry settings of a {@link ResiliencePipeline}.
+ * <p>
+ * Idempotent calls (GET, PUT, DELETE) are retried on transport failures and on the retryable statuses. Non-idempotent
+ * calls (POST, PATCH) are only retried when the connection could not be established, i.e. the request was never sent.
+ * Backoff grows exponentially from {@link #initialBackoff} up to {@link #maxBackoff} and is randomised by
+ * {@link #jitter} so retries of many callers do not arrive in lockstep.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RetryPolicy {
+
+    /**
+     * Retries per call on top of the first attempt
+     */
+    @Builder.Default
+    int maxRetries = 2;
+
+    @Builder.Default
+    Duration initialBackoff = Duration.ofMillis(50);
+
+    @Builder.Default
+    Duration maxBackoff = Duration.ofSeconds(2);
+
+    /**
+     * Fraction of the backoff that is randomised, 0 for none and 1 for "full jitter"
+     */
+    @Builder.Default
+    double jitter = 0.5;
+
+    /**
+     * Response statuses worth retrying, 502/503/504 if none are given
+     */
+    @Singular
+    Set<Integer> retryableStatuses;
+
+    /**
+     * Retries allowed per call made, e.g. 0.1 lets retries add at most 10% load while upstream is failing
+     */
+    @Builder.Default
+    double budgetRatio = 0.1;
+
+    /**
+     * Retries that may be spent in a burst, the budget starts full and refills by {@link #budgetRatio} per call
+     */
+    @Builder.Default
+    int maxRetryBurst = 10;
+
+    boolean isRetryableStatus(int statusCode) {
+        return retryableStatuses.isEmpty()
+                ? statusCode == 502 || statusCode == 503 || statusCode == 504
+                : retryableStatuses.contains(statusCode);
+    }
+}
@@ -0,0 +1,81 @@
+package com.reactive.http;
+
+import io.netty.handler.codec.http.HttpHeaders;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Scripted HTTP server on a random local port for the behavior tests, every request is answered by the given handler
+ * and counted, and its request headers are kept for assertions.
+ */
+public final class TestServer implements AutoCloseable {
+
+    private final DisposableServer server;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final Queue<HttpHeaders> requestHeaders = new ConcurrentLinkedQueue<>();
+
+    private TestServer(BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> handler) {
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    requestCount.incrementAndGet();
+                    requestHeaders.add(request.requestHeaders().copy());
+                    //The request body is drained first, so a handler answering early never leaves it unread
+                    return request.receive().then().thenMany(handler.apply(request, response));
+                })
+                .bindNow();
+    }
+
+    /**
+     * @param handler answers every request
+     */
+    public static TestServer start(BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> handler) {
+        return new TestServer(handler);
+    }
+
+    /**
+     * @return a handler answering every request with the status and a small JSON body
+     */
+    public static BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> status(int status) {
+        return (request, response) -> json(response.status(status), "{\"id\":1,\"name\":\"item\"}");
+    }
+
+    public static Publisher<Void> json(HttpServerResponse response, String body) {
+        return response.header("Content-Type", "application/json")
+                .sendString(Mono.just(body), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return http://127.0.0.1:port without a trailing slash
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return headers of the requests received so far, in arrival order
+     */
+    public Queue<HttpHeaders> requestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
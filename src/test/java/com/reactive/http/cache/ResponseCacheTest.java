@@ -0,0 +1,110 @@
+package com.reactive.http.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.TestServer;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.RestApiResult;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private final ResponseCache responseCache = new ResponseCache(100, 1024 * 1024);
+    private final RestClientManager client = new RestClientManager(RestClientManager.Config.builder()
+            .responseCache(responseCache)
+            .build());
+
+    @AfterEach
+    void dispose() {
+        client.dispose();
+    }
+
+    @Test
+    void revalidatesAStaleEntryAndServesA304FromTheCache() {
+        try (TestServer server = TestServer.start((request, response) -> ETAG.equals(request.requestHeaders().get(HttpHeaderNames.IF_NONE_MATCH))
+                ? response.status(304).header(HttpHeaderNames.ETAG, ETAG).header(HttpHeaderNames.CACHE_CONTROL, "max-age=0").send()
+                : TestServer.json(response.header(HttpHeaderNames.ETAG, ETAG).header(HttpHeaderNames.CACHE_CONTROL, "max-age=0"),
+                "{\"id\":1,\"name\":\"item\"}"))) {
+            String url = server.baseUrl() + "/items/1";
+
+            RestApiResult<JsonNode> first = client.getResource(url, JsonNode.class).block();
+            RestApiResult<JsonNode> revalidated = client.getResource(url, JsonNode.class).block();
+
+            assertEquals(200, first.getHttpStatusCode());
+            assertTrue(revalidated.isSuccess());
+            assertSame(first.getSuccessResult(), revalidated.getSuccessResult());
+            assertEquals(2, server.requestCount());
+            HttpHeaders[] requestHeaders = server.requestHeaders().toArray(new HttpHeaders[0]);
+            assertNull(requestHeaders[0].get(HttpHeaderNames.IF_NONE_MATCH));
+            assertEquals(ETAG, requestHeaders[1].get(HttpHeaderNames.IF_NONE_MATCH));
+
+            ResponseCache.Stats stats = responseCache.stats();
+            assertEquals(1, stats.getRevalidationCount());
+            assertEquals(0, stats.getHitCount());
+            assertEquals(2, stats.getMissCount());
+        }
+    }
+
+    @Test
+    void servesAFreshEntryWithoutARequest() {
+        try (TestServer server = TestServer.start((request, response) ->
+                TestServer.json(response.header(HttpHeaderNames.CACHE_CONTROL, "max-age=60"), "{\"id\":1,\"name\":\"item\"}"))) {
+            String url = server.baseUrl() + "/items/1";
+
+            RestApiResult<JsonNode> first = client.getResource(url, JsonNode.class).block();
+            RestApiResult<JsonNode> cached = client.getResource(url, JsonNode.class).block();
+
+            assertSame(first.getSuccessResult(), cached.getSuccessResult());
+            assertEquals(1, server.requestCount());
+            assertEquals(1, responseCache.stats().getHitCount());
+        }
+    }
+
+    @Test
+    void doesNotStoreNoStoreResponses() {
+        try (TestServer server = TestServer.start((request, response) ->
+                TestServer.json(response.header(HttpHeaderNames.CACHE_CONTROL, "no-store").header(HttpHeaderNames.ETAG, ETAG),
+                        "{\"id\":1,\"name\":\"item\"}"))) {
+            String url = server.baseUrl() + "/items/1";
+
+            client.getResource(url, JsonNode.class).block();
+            client.getResource(url, JsonNode.class).block();
+
+            assertEquals(2, server.requestCount());
+            assertNull(server.requestHeaders().toArray(new HttpHeaders[0])[1].get(HttpHeaderNames.IF_NONE_MATCH));
+            assertEquals(0, responseCache.stats().getEntryCount());
+        }
+    }
+
+    @Test
+    void dropsTheStaleEntryWhenItsRevalidationCannotBeStored() {
+        AtomicInteger requests = new AtomicInteger();
+        try (TestServer server = TestServer.start((request, response) -> requests.incrementAndGet() == 1
+                ? TestServer.json(response.header(HttpHeaderNames.ETAG, ETAG).header(HttpHeaderNames.CACHE_CONTROL, "max-age=0"),
+                "{\"id\":1,\"name\":\"item\"}")
+                : TestServer.json(response.header(HttpHeaderNames.CACHE_CONTROL, "no-store"), "{\"id\":1,\"name\":\"changed\"}"))) {
+            String url = server.baseUrl() + "/items/1";
+
+            client.getResource(url, JsonNode.class).block();
+            RestApiResult<JsonNode> revalidated = client.getResource(url, JsonNode.class).block();
+            client.getResource(url, JsonNode.class).block();
+
+            assertEquals("changed", revalidated.getSuccessResult().get("name").asText());
+            HttpHeaders[] requestHeaders = server.requestHeaders().toArray(new HttpHeaders[0]);
+            assertEquals(ETAG, requestHeaders[1].get(HttpHeaderNames.IF_NONE_MATCH));
+            assertNull(requestHeaders[2].get(HttpHeaderNames.IF_NONE_MATCH));
+            assertEquals(0, responseCache.stats().getEntryCount());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.reactive.http.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.TestServer;
+import com.reactive.http.metrics.ClientMetrics;
+import com.reactive.http.model.RestApiBatchResult;
+import com.reactive.http.model.RestApiListResult;
+import com.reactive.http.model.RestApiResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RestClientManagerTest {
+
+    private final RestClientManager client = new RestClientManager(RestClientManager.Config.builder().build());
+
+    @AfterEach
+    void dispose() {
+        client.dispose();
+    }
+
+    @Test
+    void listWithNullElementsIsASuccess() {
+        try (TestServer server = TestServer.start((request, response) -> TestServer.json(response, "[1,null,2]"))) {
+            RestApiListResult<Integer> result = client.getResources(server.baseUrl() + "/items", Integer.class).block();
+
+            assertTrue(result.isSuccess());
+            assertEquals(Arrays.asList(1, null, 2), result.getSuccessResults());
+        }
+    }
+
+    @Test
+    void nullBodyIsASuccessWithoutResult() {
+        try (TestServer server = TestServer.start((request, response) -> TestServer.json(response, "null"))) {
+            RestApiResult<Integer> result = client.getResource(server.baseUrl() + "/items/1", Integer.class).block();
+
+            assertTrue(result.isSuccess());
+            assertNull(result.getSuccessResult());
+        }
+    }
+
+    @Test
+    void batchResultsCarryTheirRequestedUrl() {
+        try (TestServer server = TestServer.start(TestServer.status(200))) {
+            //Nothing listens on port 1, so that call fails without a response
+            String unreachable = "http://127.0.0.1:1/items/2";
+            String ok = server.baseUrl() + "/items/1?fields=name";
+            Map<String, RestApiBatchResult<JsonNode>> results = client.getResourcesBatch(List.of(unreachable, ok), JsonNode.class, 2)
+                    .collectMap(RestApiBatchResult::getUrl)
+                    .block();
+
+            assertEquals(2, results.size());
+            assertTrue(results.get(ok).isSuccess());
+            assertFalse(results.get(unreachable).isSuccess());
+            assertNull(results.get(unreachable).getMetadata());
+        }
+    }
+
+    @Test
+    void streamedCallsAreTimed() {
+        List<String> requests = new CopyOnWriteArrayList<>();
+        List<String> bytesReceived = new CopyOnWriteArrayList<>();
+        ClientMetrics metrics = new ClientMetrics() {
+            @Override
+            public void recordRequest(String host, String method, int statusCode, long latencyNanos) {
+                requests.add(method + " " + statusCode);
+            }
+
+            @Override
+            public void recordBytesReceived(String remoteAddress, long bytes) {
+                bytesReceived.add(remoteAddress);
+            }
+        };
+        RestClientManager meteredClient = new RestClientManager(RestClientManager.Config.builder().metrics(metrics).build());
+        try (TestServer server = TestServer.start((request, response) -> request.uri().endsWith("/missing")
+                ? response.status(404).send()
+                : TestServer.json(response, "[1,2,3]"))) {
+            StepVerifier.create(meteredClient.streamResources(server.baseUrl() + "/items", Integer.class))
+                    .expectNext(1, 2, 3)
+                    .verifyComplete();
+            StepVerifier.create(meteredClient.streamResources(server.baseUrl() + "/missing", Integer.class))
+                    .expectError(RestApiException.class)
+                    .verify();
+
+            assertEquals(List.of("GET 200", "GET 404"), requests);
+            assertFalse(bytesReceived.isEmpty());
+            assertTrue(bytesReceived.stream().allMatch(server.baseUrl().substring("http://".length())::equals));
+        } finally {
+            meteredClient.dispose();
+        }
+    }
+}
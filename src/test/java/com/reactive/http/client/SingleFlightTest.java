@@ -0,0 +1,171 @@
+package com.reactive.http.client;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneExecution() {
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> first = singleFlight.execute("key", () -> counted(upstream.asMono()));
+        Mono<String> second = singleFlight.execute("key", () -> counted(Mono.just("other")));
+
+        StepVerifier.create(first)
+                .then(() -> StepVerifier.create(second)
+                        .then(() -> upstream.tryEmitValue("value"))
+                        .expectNext("value")
+                        .verifyComplete())
+                .expectNext("value")
+                .verifyComplete();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void errorReachesEveryCaller() {
+        Sinks.One<String> upstream = Sinks.one();
+
+        StepVerifier.create(singleFlight.execute("key", () -> counted(upstream.asMono())))
+                .then(() -> StepVerifier.create(singleFlight.execute("key", () -> counted(Mono.just("other"))))
+                        .then(() -> upstream.tryEmitError(new IllegalStateException("failed")))
+                        .expectErrorMessage("failed")
+                        .verify())
+                .expectErrorMessage("failed")
+                .verify();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void executionRunsWithTheContextOfTheFirstCaller() {
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> call = Mono.deferContextual(context -> upstream.asMono().map(value -> value + " " + context.getOrDefault("trace", "none")));
+
+        StepVerifier.create(singleFlight.execute("key", () -> counted(call)).contextWrite(Context.of("trace", "first")))
+                .then(() -> StepVerifier.create(singleFlight.execute("key", () -> counted(call)).contextWrite(Context.of("trace", "second")))
+                        .then(() -> upstream.tryEmitValue("value"))
+                        .expectNext("value first")
+                        .verifyComplete())
+                .expectNext("value first")
+                .verifyComplete();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void callAfterTerminationStartsANewExecution() {
+        StepVerifier.create(singleFlight.execute("key", () -> counted(Mono.just("first"))))
+                .expectNext("first")
+                .verifyComplete();
+        StepVerifier.create(singleFlight.execute("key", () -> counted(Mono.just("second"))))
+                .expectNext("second")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void cancellingOneCallerOnlyDetachesIt() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> shared = singleFlight.execute("key", () -> counted(upstream.asMono().doOnCancel(() -> cancelled.set(true))));
+
+        Disposable detached = shared.subscribe();
+        StepVerifier.create(singleFlight.execute("key", () -> counted(Mono.just("other"))))
+                .then(detached::dispose)
+                .then(() -> assertFalse(cancelled.get()))
+                .then(() -> upstream.tryEmitValue("value"))
+                .expectNext("value")
+                .verifyComplete();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void cancellingTheLastCallerCancelsTheExecution() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> never = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = singleFlight.execute("key", () -> counted(never)).subscribe();
+        Disposable second = singleFlight.execute("key", () -> counted(never)).subscribe();
+        first.dispose();
+        assertFalse(cancelled.get());
+        second.dispose();
+        assertTrue(cancelled.get());
+
+        //The cancelled execution is no longer in flight, the next caller starts its own
+        StepVerifier.create(singleFlight.execute("key", () -> counted(Mono.just("value"))))
+                .expectNext("value")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void callerJoiningAsTheExecutionTerminatesReceivesItsValue() {
+        Sinks.One<String> upstream = Sinks.one();
+        List<String> lateJoiner = new CopyOnWriteArrayList<>();
+
+        //Subscribing from the first caller's onNext joins while the execution is terminating, before the key is released
+        StepVerifier.create(singleFlight.execute("key", () -> counted(upstream.asMono()))
+                        .doOnNext(value -> singleFlight.execute("key", () -> counted(Mono.just("other")))
+                                .defaultIfEmpty("empty")
+                                .subscribe(lateJoiner::add)))
+                .then(() -> upstream.tryEmitValue("value"))
+                .expectNext("value")
+                .verifyComplete();
+        assertEquals(List.of("value"), lateJoiner);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void concurrentCallersNeverObserveAnEmptyResult() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 500; round++) {
+                String key = "key-" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return singleFlight.execute(key, () -> counted(Mono.fromCallable(() -> "value").subscribeOn(Schedulers.parallel())))
+                                .defaultIfEmpty("empty")
+                                .block(Duration.ofSeconds(5));
+                    }));
+                }
+                start.countDown();
+                for (Future<String> result : results) {
+                    assertEquals("value", result.get());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(calls.get() < 500 * threads, "concurrent callers are coalesced");
+    }
+
+    private <V> Mono<V> counted(Mono<V> call) {
+        calls.incrementAndGet();
+        return call;
+    }
+}
@@ -0,0 +1,102 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonDecoderTest {
+
+    private final JsonDecoder decoder = new JsonDecoder(new ObjectMapper());
+
+    @Test
+    void listKeepsNullElements() {
+        StepVerifier.create(decoder.decodeToList(body("[1,null,2]"), Integer.class))
+                .assertNext(list -> assertEquals(Arrays.asList(1, null, 2), list))
+                .verifyComplete();
+    }
+
+    @Test
+    void nullBodyDecodesToAnEmptyMono() {
+        StepVerifier.create(decoder.decodeToMono(body("null"), Integer.class))
+                .verifyComplete();
+    }
+
+    @Test
+    void streamedElementsSkipNulls() {
+        StepVerifier.create(decoder.decode(body("[1,null,2]"), Integer.class))
+                .expectNext(1, 2)
+                .verifyComplete();
+        StepVerifier.create(decoder.decodeValues(body("1\nnull\n2\n"), Integer.class))
+                .expectNext(1, 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void decodesBodiesSplitAcrossChunks() {
+        String json = "[{\"id\":1,\"name\":\"caf\u00e9\"},null,{\"id\":2,\"name\":\"\u20ac\"}]";
+        List<Map<String, Object>> expected = Arrays.asList(Map.of("id", 1, "name", "caf\u00e9"), null, Map.of("id", 2, "name", "\u20ac"));
+        for (int chunkSize = 1; chunkSize <= json.length(); chunkSize++) {
+            int size = chunkSize;
+            StepVerifier.create(decoder.decodeToList(chunked(json, size), Map.class))
+                    .assertNext(list -> assertEquals(expected, list, "chunk size " + size))
+                    .verifyComplete();
+            StepVerifier.create(decoder.decode(chunked(json, size), Map.class))
+                    .expectNext(expected.get(0), expected.get(2))
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void emptyBodyDecodesToNothing() {
+        StepVerifier.create(decoder.decodeToMono(body(""), Integer.class))
+                .verifyComplete();
+        StepVerifier.create(decoder.decode(body(""), Integer.class))
+                .verifyComplete();
+        StepVerifier.create(decoder.decodeToList(body(""), Integer.class))
+                .assertNext(list -> assertTrue(list.isEmpty()))
+                .verifyComplete();
+        StepVerifier.create(decoder.decodeToList(Flux.empty(), Integer.class))
+                .assertNext(list -> assertTrue(list.isEmpty()))
+                .verifyComplete();
+    }
+
+    @Test
+    void truncatedBodyFails() {
+        StepVerifier.create(decoder.decodeToList(chunked("[1,2", 1), Integer.class))
+                .expectError(IOException.class)
+                .verify();
+        StepVerifier.create(decoder.decode(chunked("[1,2", 1), Integer.class))
+                .expectNext(1)
+                .expectError(IOException.class)
+                .verify();
+        StepVerifier.create(decoder.decodeToMono(body("{\"id\":1"), Map.class))
+                .expectError(IOException.class)
+                .verify();
+    }
+
+    /**
+     * @return the body as a single chunk
+     */
+    static Flux<ByteBuf> body(String json) {
+        return Flux.just(Unpooled.wrappedBuffer(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return the body split into chunks of chunkSize bytes
+     */
+    static Flux<ByteBuf> chunked(String json, int chunkSize) {
+        return Flux.defer(() -> Flux.fromIterable(JsonTokenizerTest.chunks(json, chunkSize)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.reactive.http.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Every input is fed in chunks of every size from a single byte up to the whole body, so each value is split at every
+ * possible position, including between the bytes of a multi-byte UTF-8 character
+ */
+class JsonTokenizerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void splitsTheElementsOfARootArray() throws IOException {
+        assertTokenized("[{\"name\":\"café €\"},2,\"😀\",true]", true,
+                List.of("{\"name\":\"café €\"}", "2", "\"😀\"", "true"));
+    }
+
+    @Test
+    void keepsNestedArraysAndObjectsWhole() throws IOException {
+        assertTokenized("[[1,2],[],[[3]],{\"items\":[{\"id\":4}]}]", true,
+                List.of("[1,2]", "[]", "[[3]]", "{\"items\":[{\"id\":4}]}"));
+    }
+
+    @Test
+    void emitsNullElements() throws IOException {
+        assertTokenized("[1,null,2]", true, List.of("1", "null", "2"));
+    }
+
+    @Test
+    void splitsNewlineDelimitedValues() throws IOException {
+        assertTokenized("{\"name\":\"über\"}\n[1,[2]]\nnull\n\"€\"\n", false,
+                List.of("{\"name\":\"über\"}", "[1,[2]]", "null", "\"€\""));
+    }
+
+    @Test
+    void emitsARootArrayWholeUnlessItsElementsAreTokenized() throws IOException {
+        assertTokenized("[1,[2,3]]", false, List.of("[1,[2,3]]"));
+    }
+
+    @Test
+    void emptyBodyHasNoValues() throws IOException {
+        assertTokenized("", true, List.of());
+        assertTokenized("", false, List.of());
+        assertTokenized("[]", true, List.of());
+    }
+
+    @Test
+    void truncatedBodyFailsAtTheEndOfInput() {
+        for (String truncated : List.of("[1,2", "[{\"id\":1}", "{\"items\":[1]", "[\"caf")) {
+            for (int chunkSize = 1; chunkSize <= truncated.length(); chunkSize++) {
+                int size = chunkSize;
+                assertThrows(IOException.class, () -> tokenize(truncated, true, size), truncated);
+            }
+        }
+    }
+
+    private void assertTokenized(String json, boolean tokenizeArrayElements, List<String> expected) throws IOException {
+        int length = json.getBytes(StandardCharsets.UTF_8).length;
+        for (int chunkSize = 1; chunkSize <= Math.max(length, 1); chunkSize++) {
+            assertEquals(expected, tokenize(json, tokenizeArrayElements, chunkSize), "chunk size " + chunkSize);
+        }
+    }
+
+    /**
+     * @return the values as compact JSON, in the order they were completed
+     */
+    private List<String> tokenize(String json, boolean tokenizeArrayElements, int chunkSize) throws IOException {
+        JsonParser parser = mapper.getFactory().createNonBlockingByteBufferParser();
+        JsonTokenizer tokenizer = new JsonTokenizer(parser, tokenizeArrayElements);
+        List<TokenBuffer> tokenBuffers = new ArrayList<>();
+        try {
+            for (ByteBuf chunk : chunks(json, chunkSize)) {
+                try {
+                    tokenBuffers.addAll(tokenizer.tokenize(chunk));
+                } finally {
+                    chunk.release();
+                }
+            }
+            tokenBuffers.addAll(tokenizer.endOfInput());
+        } finally {
+            tokenizer.close();
+        }
+        List<String> values = new ArrayList<>();
+        for (TokenBuffer tokenBuffer : tokenBuffers) {
+            values.add(mapper.writeValueAsString(mapper.readTree(tokenBuffer.asParser(mapper))));
+        }
+        return values;
+    }
+
+    /**
+     * @return the UTF-8 bytes of the body split into direct buffers of chunkSize bytes, the last one possibly shorter
+     */
+    static List<ByteBuf> chunks(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<ByteBuf> chunks = new ArrayList<>();
+        for (int start = 0; start < bytes.length; start += chunkSize) {
+            int length = Math.min(chunkSize, bytes.length - start);
+            chunks.add(Unpooled.directBuffer(length).writeBytes(bytes, start, length));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,117 @@
+package com.reactive.http.lb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.TestServer;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.RestApiResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancerTest {
+
+    private static final Duration EJECTION_TIME = Duration.ofMillis(300);
+
+    private final AtomicBoolean failing = new AtomicBoolean(true);
+    private TestServer healthy;
+    private TestServer flaky;
+    private RestClientManager client;
+
+    @BeforeEach
+    void start() {
+        healthy = TestServer.start(TestServer.status(200));
+        flaky = TestServer.start((request, response) -> TestServer.status(failing.get() ? 500 : 200).apply(request, response));
+        client = new RestClientManager(RestClientManager.Config.builder()
+                .service("items", EndpointSource.of(healthy.baseUrl(), flaky.baseUrl()))
+                .loadBalancer(LoadBalancerPolicy.builder()
+                        .strategy(LoadBalancerPolicy.Strategy.LEAST_OUTSTANDING)
+                        .consecutiveFailures(2)
+                        .baseEjectionTime(EJECTION_TIME)
+                        .build())
+                .build());
+    }
+
+    @AfterEach
+    void stop() {
+        client.dispose();
+        healthy.close();
+        flaky.close();
+    }
+
+    @Test
+    void ejectsAFailingEndpointAndRoutesToItAgainOnceRecovered() throws InterruptedException {
+        //Sequential calls tie on calls in flight and so spread at random until the flaky endpoint failed twice
+        for (int i = 0; i < 40 && !isEjected(); i++) {
+            call();
+        }
+        assertTrue(isEjected());
+        assertEquals(2, flaky.requestCount());
+        assertEquals(1, flakyStats().getEjectionCount());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(call().isSuccess());
+        }
+        assertEquals(2, flaky.requestCount(), "no call is routed to an ejected endpoint");
+
+        failing.set(false);
+        Thread.sleep(EJECTION_TIME.toMillis() + 50);
+        assertFalse(isEjected());
+        for (int i = 0; i < 40 && flaky.requestCount() == 2; i++) {
+            assertTrue(call().isSuccess());
+        }
+        assertTrue(flaky.requestCount() > 2, "the endpoint is routed to again after its ejection time");
+        assertTrue(flakyStats().getLatencyEwmaMillis() > 0);
+        assertEquals(1, flakyStats().getEjectionCount());
+    }
+
+    @Test
+    void callToAnUnknownServiceYieldsNoEndpointAvailable() {
+        StepVerifier.create(client.getResource("lb://unknown/items/1", JsonNode.class))
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertInstanceOf(NoEndpointAvailableException.class, result.getErrorResponse().getException());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void countsCallsInFlightUntilTheResultIsEmitted() {
+        LoadBalancer loadBalancer = new LoadBalancer(LoadBalancerPolicy.builder().build(), Map.of("items", EndpointSource.of("http://a")));
+
+        StepVerifier.create(loadBalancer.execute("lb://items/1", url -> Mono.delay(Duration.ofMillis(50))
+                        .map(tick -> RestApiResult.success(url, null))))
+                .then(() -> assertEquals(1, inFlight(loadBalancer)))
+                .assertNext(result -> assertEquals("http://a/1", result.getSuccessResult()))
+                .verifyComplete();
+        assertEquals(0, inFlight(loadBalancer));
+    }
+
+    private RestApiResult<JsonNode> call() {
+        return client.getResource("lb://items/items/1", JsonNode.class).block();
+    }
+
+    private boolean isEjected() {
+        return flakyStats().isEjected();
+    }
+
+    private LoadBalancerStats.EndpointStats flakyStats() {
+        List<LoadBalancerStats.EndpointStats> endpoints = client.getLoadBalancerStats().getEndpoints().get("items");
+        return endpoints.get(1);
+    }
+
+    private static int inFlight(LoadBalancer loadBalancer) {
+        return loadBalancer.stats().getEndpoints().get("items").get(0).getInFlight();
+    }
+}
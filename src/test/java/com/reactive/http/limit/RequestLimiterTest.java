@@ -0,0 +1,159 @@
+package com.reactive.http.limit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.TestServer;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.RestApiResult;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLimiterTest {
+
+    private static final LimitPolicy SINGLE_PERMIT = LimitPolicy.builder()
+            .concurrencyLimit(ConcurrencyLimitPolicy.builder()
+                    .initialLimit(1)
+                    .minLimit(1)
+                    .maxLimit(1)
+                    .build())
+            .maxQueueSize(1)
+            .maxQueueWait(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    void shedsCallsOnceTheQueueIsFull() {
+        RequestLimiter limiter = new RequestLimiter(SINGLE_PERMIT);
+        Sinks.One<RestApiResult<String>> first = Sinks.one();
+        AtomicInteger queuedCalls = new AtomicInteger();
+        List<String> completed = new CopyOnWriteArrayList<>();
+
+        limiter.execute("host", first::asMono).subscribe(result -> completed.add(result.getSuccessResult()));
+        limiter.execute("host", () -> {
+            queuedCalls.incrementAndGet();
+            return Mono.just(RestApiResult.success("queued", null));
+        }).subscribe(result -> completed.add(result.getSuccessResult()));
+        StepVerifier.create(limiter.execute("host", () -> Mono.just(RestApiResult.success("shed", null))))
+                .assertNext(RequestLimiterTest::assertShed)
+                .verifyComplete();
+        assertEquals(0, queuedCalls.get(), "a queued call waits for the permit");
+
+        first.tryEmitValue(RestApiResult.success("first", null));
+        assertEquals(List.of("first", "queued"), completed);
+
+        LimitStats stats = limiter.stats();
+        assertEquals(3, stats.getCalls());
+        assertEquals(1, stats.getQueued());
+        assertEquals(1, stats.getShed());
+        assertEquals(0, stats.getInFlight().get("host"));
+    }
+
+    @Test
+    void shedsQueuedCallsAfterTheMaximumQueueWait() {
+        RequestLimiter limiter = new RequestLimiter(SINGLE_PERMIT);
+        limiter.execute("host", Mono::never).subscribe();
+
+        StepVerifier.withVirtualTime(() -> limiter.execute("host", () -> Mono.just(RestApiResult.success("queued", null))))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .assertNext(RequestLimiterTest::assertShed)
+                .verifyComplete();
+        assertEquals(1, limiter.stats().getQueued());
+        assertEquals(1, limiter.stats().getShed());
+    }
+
+    @Test
+    void cancelledQueuedCallLeavesTheQueue() {
+        RequestLimiter limiter = new RequestLimiter(SINGLE_PERMIT);
+        Sinks.One<RestApiResult<String>> first = Sinks.one();
+        limiter.execute("host", first::asMono).subscribe();
+
+        StepVerifier.create(limiter.execute("host", () -> Mono.just(RestApiResult.success("cancelled", null))))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        //The queue has room again, the next call is queued rather than shed and gets the released permit
+        StepVerifier.create(limiter.execute("host", () -> Mono.just(RestApiResult.success("queued", null))))
+                .then(() -> first.tryEmitValue(RestApiResult.success("first", null)))
+                .assertNext(result -> assertEquals("queued", result.getSuccessResult()))
+                .verifyComplete();
+        assertEquals(0, limiter.stats().getShed());
+    }
+
+    @Test
+    void streamHoldsItsPermitUntilCancelled() {
+        RequestLimiter limiter = new RequestLimiter(SINGLE_PERMIT.toBuilder().maxQueueSize(0).build());
+        Disposable stream = limiter.stream("host", Flux::never).subscribe();
+
+        StepVerifier.create(limiter.execute("host", () -> Mono.just(RestApiResult.success("shed", null))))
+                .assertNext(RequestLimiterTest::assertShed)
+                .verifyComplete();
+        StepVerifier.create(limiter.stream("host", () -> Flux.just("shed")))
+                .expectError(LimitExceededException.class)
+                .verify();
+        assertEquals(1, limiter.stats().getInFlight().get("host"));
+
+        stream.dispose();
+        StepVerifier.create(limiter.stream("host", () -> Flux.just("first", "second")))
+                .expectNext("first", "second")
+                .verifyComplete();
+        assertEquals(0, limiter.stats().getInFlight().get("host"));
+        assertEquals(2, limiter.stats().getShed());
+    }
+
+    @Test
+    void limitsTheRequestsInFlightToAHost() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        try (TestServer server = TestServer.start((request, response) ->
+                gate.asMono().then(Mono.from(TestServer.status(200).apply(request, response))))) {
+            RestClientManager client = new RestClientManager(RestClientManager.Config.builder()
+                    .limits(SINGLE_PERMIT.toBuilder().maxQueueWait(Duration.ofSeconds(10)).build())
+                    .build());
+            try {
+                String url = server.baseUrl() + "/items/1";
+                Mono<RestApiResult<JsonNode>> first = client.getResource(url, JsonNode.class).cache();
+                Mono<RestApiResult<JsonNode>> queued = client.getResource(url, JsonNode.class).cache();
+                first.subscribe();
+                queued.subscribe();
+
+                assertShed(client.getResource(url, JsonNode.class).block());
+                awaitRequests(server, 1);
+
+                gate.tryEmitEmpty();
+                assertTrue(first.block(Duration.ofSeconds(5)).isSuccess());
+                assertTrue(queued.block(Duration.ofSeconds(5)).isSuccess());
+                assertEquals(2, server.requestCount());
+                assertEquals(1, client.getLimitStats().getShed());
+            } finally {
+                client.dispose();
+            }
+        }
+    }
+
+    private static void awaitRequests(TestServer server, int requests) {
+        long deadlineNanos = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (server.requestCount() < requests && System.nanoTime() - deadlineNanos < 0) {
+            Thread.onSpinWait();
+        }
+        assertEquals(requests, server.requestCount());
+    }
+
+    private static void assertShed(RestApiResult<?> result) {
+        assertFalse(result.isSuccess());
+        assertInstanceOf(LimitExceededException.class, result.getErrorResponse().getException());
+    }
+}
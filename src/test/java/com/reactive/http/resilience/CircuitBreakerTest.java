@@ -0,0 +1,128 @@
+package com.reactive.http.resilience;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.TestServer;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.RestApiResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The breaker reads System.nanoTime, so the open duration is kept short and really waited for instead of using
+ * virtual time
+ */
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(100);
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(CircuitBreakerPolicy.builder()
+            .minimumCalls(4)
+            .failureRateThreshold(0.5)
+            .openDuration(OPEN_DURATION)
+            .halfOpenCalls(2)
+            .build());
+
+    @Test
+    void opensOnceTheFailureRateIsReachedOverTheMinimumCalls() {
+        circuitBreaker.onResult(false);
+        circuitBreaker.onResult(false);
+        circuitBreaker.onResult(true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onResult(true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void staysClosedBelowTheFailureRate() {
+        circuitBreaker.onResult(true);
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onResult(false);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCalls() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission(), "only halfOpenCalls trial calls are let through");
+
+        circuitBreaker.onResult(false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onResult(false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void reopensWhenATrialCallFails() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void cancelledTrialCallReturnsItsPermit() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onCancel();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shortCircuitsCallsToAFailingHost() {
+        try (TestServer server = TestServer.start(TestServer.status(500))) {
+            RestClientManager client = new RestClientManager(RestClientManager.Config.builder()
+                    .resilience(ResiliencePolicy.builder()
+                            .circuitBreaker(CircuitBreakerPolicy.builder()
+                                    .minimumCalls(4)
+                                    .openDuration(Duration.ofMinutes(1))
+                                    .build())
+                            .build())
+                    .build());
+            try {
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(500, client.getResource(server.baseUrl() + "/items/1", JsonNode.class).block().getHttpStatusCode());
+                }
+                RestApiResult<JsonNode> shortCircuited = client.getResource(server.baseUrl() + "/items/1", JsonNode.class).block();
+
+                assertFalse(shortCircuited.isSuccess());
+                assertInstanceOf(CircuitBreakerOpenException.class, shortCircuited.getErrorResponse().getException());
+                assertEquals(4, server.requestCount());
+                ResilienceStats stats = client.getResilienceStats();
+                assertEquals(1, stats.getShortCircuited());
+                assertEquals("OPEN", stats.getCircuitBreakerStates().get(server.baseUrl().substring("http://".length())));
+            } finally {
+                client.dispose();
+            }
+        }
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,128 @@
+package com.reactive.http.resilience;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reactive.http.TestServer;
+import com.reactive.http.client.RestClientManager;
+import com.reactive.http.model.ErrorResponse;
+import com.reactive.http.model.ResponseMetadata;
+import com.reactive.http.model.RestApiResult;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResiliencePipelineTest {
+
+    @Test
+    void retryBudgetStartsFullAndRefillsPerCall() {
+        RetryBudget retryBudget = new RetryBudget(0.5, 2);
+        assertTrue(retryBudget.tryWithdraw());
+        assertTrue(retryBudget.tryWithdraw());
+        assertFalse(retryBudget.tryWithdraw());
+
+        retryBudget.deposit();
+        assertFalse(retryBudget.tryWithdraw(), "half a token is not a retry");
+        retryBudget.deposit();
+        assertTrue(retryBudget.tryWithdraw());
+    }
+
+    @Test
+    void retriesWithBackoffUntilTheBudgetIsExhausted() {
+        ResiliencePipeline pipeline = new ResiliencePipeline(ResiliencePolicy.builder()
+                .retry(RetryPolicy.builder()
+                        .maxRetries(3)
+                        .initialBackoff(Duration.ofMillis(100))
+                        .jitter(0)
+                        .budgetRatio(0)
+                        .maxRetryBurst(2)
+                        .build())
+                .build());
+        AtomicInteger attempts = new AtomicInteger();
+
+        //Backoffs of 100ms and 200ms, then the third retry is denied by the empty budget
+        StepVerifier.withVirtualTime(() -> pipeline.execute("host", true, () -> Mono.fromSupplier(() -> {
+                    attempts.incrementAndGet();
+                    return unavailable();
+                })))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(299))
+                .thenAwait(Duration.ofMillis(1))
+                .assertNext(result -> assertEquals(503, result.getHttpStatusCode()))
+                .verifyComplete();
+        assertEquals(3, attempts.get());
+
+        //The budget does not refill with a ratio of 0, so the next call gets no retry at all
+        StepVerifier.withVirtualTime(() -> pipeline.execute("host", true, () -> Mono.fromSupplier(() -> {
+                    attempts.incrementAndGet();
+                    return unavailable();
+                })))
+                .assertNext(result -> assertEquals(503, result.getHttpStatusCode()))
+                .verifyComplete();
+        assertEquals(4, attempts.get());
+
+        ResilienceStats stats = pipeline.stats();
+        assertEquals(2, stats.getCalls());
+        assertEquals(2, stats.getRetries());
+        assertEquals(2, stats.getRetriesDeniedByBudget());
+    }
+
+    @Test
+    void nonIdempotentCallsAreNotRetriedOnStatus() {
+        ResiliencePipeline pipeline = new ResiliencePipeline(ResiliencePolicy.builder()
+                .retry(RetryPolicy.builder().build())
+                .build());
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> pipeline.execute("host", false, () -> Mono.fromSupplier(() -> {
+                    attempts.incrementAndGet();
+                    return unavailable();
+                })))
+                .assertNext(result -> assertEquals(503, result.getHttpStatusCode()))
+                .verifyComplete();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void retryBudgetBoundsTheRequestsSentToAFailingHost() {
+        try (TestServer server = TestServer.start(TestServer.status(503))) {
+            RestClientManager client = new RestClientManager(RestClientManager.Config.builder()
+                    .resilience(ResiliencePolicy.builder()
+                            .retry(RetryPolicy.builder()
+                                    .maxRetries(2)
+                                    .initialBackoff(Duration.ofMillis(1))
+                                    .budgetRatio(0)
+                                    .maxRetryBurst(1)
+                                    .build())
+                            .build())
+                    .build());
+            try {
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(503, client.getResource(server.baseUrl() + "/items/1", JsonNode.class).block().getHttpStatusCode());
+                }
+
+                //One retry for the first call only, the budget is empty afterwards
+                assertEquals(4, server.requestCount());
+                ResilienceStats stats = client.getResilienceStats();
+                assertEquals(1, stats.getRetries());
+                assertEquals(3, stats.getRetriesDeniedByBudget());
+            } finally {
+                client.dispose();
+            }
+        }
+    }
+
+    private static RestApiResult<String> unavailable() {
+        HttpResponseStatus status = HttpResponseStatus.SERVICE_UNAVAILABLE;
+        return RestApiResult.failure(ErrorResponse.ofStatus(status, EmptyHttpHeaders.INSTANCE, status.reasonPhrase()),
+                new ResponseMetadata("/items/1", HttpMethod.GET, EmptyHttpHeaders.INSTANCE, status, EmptyHttpHeaders.INSTANCE));
+    }
+}